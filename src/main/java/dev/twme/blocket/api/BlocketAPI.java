@@ -5,12 +5,14 @@ import org.bukkit.plugin.Plugin;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
 
+import dev.twme.blocket.listeners.BaseChunkInvalidationListener;
 import dev.twme.blocket.listeners.StageBoundListener;
 import dev.twme.blocket.managers.BlockChangeManager;
 import dev.twme.blocket.managers.StageManager;
 import dev.twme.blocket.protocol.BlockDigAdapter;
 import dev.twme.blocket.protocol.BlockPlaceAdapter;
 import dev.twme.blocket.protocol.ChunkLoadAdapter;
+import dev.twme.blocket.utils.BlockStateRegistry;
 import lombok.Getter;
 
 /**
@@ -39,6 +41,7 @@ public class BlocketAPI {
     private BlockPlaceAdapter blockPlaceAdapter;
     private ChunkLoadAdapter chunkLoadAdapter;
     private StageBoundListener stageBoundListener;
+    private BaseChunkInvalidationListener baseChunkInvalidationListener;
     
     /**
      * Private constructor - use initialize() methods
@@ -53,6 +56,9 @@ public class BlocketAPI {
         this.stageManager = new StageManager(this);
         this.blockChangeManager = new BlockChangeManager(this);
         
+        // Intern common block states before the first chunks are built
+        BlockStateRegistry.warmUp(plugin);
+        
         plugin.getLogger().info("Blocket API core initialized for plugin: " + plugin.getName());
     }
     
@@ -167,6 +173,12 @@ public class BlocketAPI {
                 ownerPlugin.getServer().getPluginManager().registerEvents(stageBoundListener, ownerPlugin);
             }
             
+            if (blockChangeManager.getBaseChunkCache() != null) {
+                // Keep the shared base chunk cache in sync with real world changes
+                baseChunkInvalidationListener = new BaseChunkInvalidationListener(blockChangeManager.getBaseChunkCache());
+                ownerPlugin.getServer().getPluginManager().registerEvents(baseChunkInvalidationListener, ownerPlugin);
+            }
+            
             listenersInitialized = true;
         }
     }
@@ -1,5 +1,7 @@
 package dev.twme.blocket.api;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * Configuration class for BlocketAPI initialization
  * This class implements the Builder pattern for creating immutable configuration objects.
@@ -14,6 +16,19 @@ public class BlocketConfig {
     private final long stageCacheExpirationMinutes;
     private final int maxObjectPoolSize;
     private final boolean preserveOriginalLighting;
+    private final boolean patchChunksInPlace;
+    private final long snapshotBudgetMillis;
+    private final int baseChunkCacheSize;
+    private final int chunkPacketCacheMegabytes;
+    private final int multiBlockChangeThreshold;
+    private final int chunkSendBudgetPerTick;
+    private final ExecutorStrategy executorStrategy;
+    private final int workerThreads;
+    private final int workerQueueCapacity;
+    private final ExecutorService customExecutor;
+    private final int sectionBuildParallelism;
+    private final int chunkWorkQueueCapacity;
+    private final int baseChunkMaxAgeSeconds;
     
     /**
      * Private constructor - use builder methods
@@ -31,6 +46,19 @@ public class BlocketConfig {
         this.stageCacheExpirationMinutes = builder.stageCacheExpirationMinutes;
         this.maxObjectPoolSize = builder.maxObjectPoolSize;
         this.preserveOriginalLighting = builder.preserveOriginalLighting;
+        this.patchChunksInPlace = builder.patchChunksInPlace;
+        this.snapshotBudgetMillis = builder.snapshotBudgetMillis;
+        this.baseChunkCacheSize = builder.baseChunkCacheSize;
+        this.chunkPacketCacheMegabytes = builder.chunkPacketCacheMegabytes;
+        this.multiBlockChangeThreshold = builder.multiBlockChangeThreshold;
+        this.chunkSendBudgetPerTick = builder.chunkSendBudgetPerTick;
+        this.executorStrategy = builder.executorStrategy;
+        this.workerThreads = builder.workerThreads;
+        this.workerQueueCapacity = builder.workerQueueCapacity;
+        this.customExecutor = builder.customExecutor;
+        this.sectionBuildParallelism = builder.sectionBuildParallelism;
+        this.chunkWorkQueueCapacity = builder.chunkWorkQueueCapacity;
+        this.baseChunkMaxAgeSeconds = builder.baseChunkMaxAgeSeconds;
     }
     
     /**
@@ -138,6 +166,136 @@ public class BlocketConfig {
         return preserveOriginalLighting;
     }
     
+    /**
+     * Get patch chunks in place setting
+     * When enabled, intercepted chunk packets keep the server's own column and only
+     * the sections containing virtual blocks are rewritten before the packet is sent.
+     *
+     * @return true if intercepted chunk packets are patched in place
+     */
+    public boolean isPatchChunksInPlace() {
+        return patchChunksInPlace;
+    }
+    
+    /**
+     * Get chunk snapshot budget in milliseconds
+     * This is the maximum main-thread time spent taking chunk snapshots per tick.
+     *
+     * @return chunk snapshot budget in milliseconds
+     */
+    public long getSnapshotBudgetMillis() {
+        return snapshotBudgetMillis;
+    }
+    
+    /**
+     * Get base chunk cache size
+     * This is the maximum number of chunks whose extracted block and light data are shared between players.
+     *
+     * @return base chunk cache size, 0 if the cache is disabled
+     */
+    public int getBaseChunkCacheSize() {
+        return baseChunkCacheSize;
+    }
+    
+    /**
+     * Get chunk packet cache size in megabytes
+     * This bounds the estimated memory of built chunk packets shared between players.
+     *
+     * @return chunk packet cache size in megabytes, 0 if the cache is disabled
+     */
+    public int getChunkPacketCacheMegabytes() {
+        return chunkPacketCacheMegabytes;
+    }
+    
+    /**
+     * Get multi-block change threshold
+     * Sections with more changed blocks than this are resent as part of a full chunk.
+     *
+     * @return maximum changed blocks per section sent as a multi-block change, 0 to always resend chunks
+     */
+    public int getMultiBlockChangeThreshold() {
+        return multiBlockChangeThreshold;
+    }
+    
+    /**
+     * Get chunk send budget per tick
+     * This is shared by all players and stages waiting for chunk resends.
+     *
+     * @return maximum number of chunks sent per tick
+     */
+    public int getChunkSendBudgetPerTick() {
+        return chunkSendBudgetPerTick;
+    }
+    
+    /**
+     * Get executor strategy
+     * Selects how chunk processing work is run off the main thread.
+     *
+     * @return executor strategy for chunk processing
+     */
+    public ExecutorStrategy getExecutorStrategy() {
+        return executorStrategy;
+    }
+    
+    /**
+     * Get worker threads
+     * Only used by the platform pool strategy.
+     *
+     * @return number of platform threads processing chunks
+     */
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+    
+    /**
+     * Get worker queue capacity
+     * Only used by the platform pool strategy; tasks beyond it are rejected.
+     *
+     * @return maximum number of tasks waiting for a worker thread
+     */
+    public int getWorkerQueueCapacity() {
+        return workerQueueCapacity;
+    }
+    
+    /**
+     * Get custom executor
+     *
+     * @return executor supplied for the custom strategy, or null if none was supplied
+     */
+    public ExecutorService getCustomExecutor() {
+        return customExecutor;
+    }
+    
+    /**
+     * Get section build parallelism
+     * The sections of a chunk column are extracted and built on a work-stealing pool of this size.
+     *
+     * @return number of threads building sections, 1 if sections are built serially
+     */
+    public int getSectionBuildParallelism() {
+        return sectionBuildParallelism;
+    }
+    
+    /**
+     * Get chunk work queue capacity
+     * Chunk builds beyond this are held back by the send scheduler.
+     *
+     * @return maximum number of chunk builds waiting for a worker
+     */
+    public int getChunkWorkQueueCapacity() {
+        return chunkWorkQueueCapacity;
+    }
+    
+    /**
+     * Get the maximum age of cached base chunk data in seconds
+     * Block changes that fire no event, such as plugins calling Block#setType, are picked up after this age.
+     *
+     * @return maximum age of cached base chunk data in seconds
+     */
+    public int getBaseChunkMaxAgeSeconds() {
+        return baseChunkMaxAgeSeconds;
+    }
+    
     /**
      * Builder class for creating BlocketConfig instances
      * This class implements the Builder pattern for creating immutable configuration objects.
@@ -152,6 +310,19 @@ public class BlocketConfig {
         private long stageCacheExpirationMinutes = 5; // Optimization: Increased from 1 minute to 5 minutes to reduce cache misses
         private int maxObjectPoolSize = 100; // Optimization: Increased object pool size to improve reuse rate
         private boolean preserveOriginalLighting = true;
+        private boolean patchChunksInPlace = true;
+        private long snapshotBudgetMillis = 5;
+        private int baseChunkCacheSize = 1024;
+        private int chunkPacketCacheMegabytes = 64;
+        private int multiBlockChangeThreshold = 1024;
+        private int chunkSendBudgetPerTick = 20;
+        private ExecutorStrategy executorStrategy = ExecutorStrategy.PLATFORM_POOL;
+        private int workerThreads = Runtime.getRuntime().availableProcessors();
+        private int workerQueueCapacity = 65536;
+        private ExecutorService customExecutor = null;
+        private int sectionBuildParallelism = Runtime.getRuntime().availableProcessors();
+        private int chunkWorkQueueCapacity = 4096;
+        private int baseChunkMaxAgeSeconds = 30;
         
         /**
          * Private constructor - use BlocketConfig.builder() to get an instance
@@ -195,6 +366,7 @@ public class BlocketConfig {
         
         /**
          * Set default chunks per tick for all stages
+         * This is a stage's weight when the chunk send budget is shared between stages and players.
          *
          * @param chunksPerTick number of chunks to process per tick
          * @return this builder for chaining
@@ -286,6 +458,216 @@ public class BlocketConfig {
             return this;
         }
         
+        /**
+         * Set patch chunks in place setting
+         * When enabled, intercepted chunk packets keep the server's own column and only
+         * the sections containing virtual blocks are rewritten before the packet is sent.
+         * When disabled, the original packet is cancelled and the chunk is rebuilt and resent.
+         *
+         * @param patch true to patch intercepted chunk packets in place
+         * @return this builder for chaining
+         */
+        public Builder patchChunksInPlace(boolean patch) {
+            this.patchChunksInPlace = patch;
+            return this;
+        }
+        
+        /**
+         * Set chunk snapshot budget in milliseconds
+         * Worker threads request chunk snapshots from the main thread, which fulfils
+         * them once per tick until this budget is spent.
+         *
+         * @param millis chunk snapshot budget in milliseconds
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if millis is not positive
+         */
+        public Builder snapshotBudgetMillis(long millis) {
+            if (millis <= 0) {
+                throw new IllegalArgumentException("Snapshot budget must be positive");
+            }
+            this.snapshotBudgetMillis = millis;
+            return this;
+        }
+        
+        /**
+         * Set base chunk cache size
+         * Extracted vanilla block and light data is shared between all players viewing the same chunk,
+         * and invalidated when blocks in the world change.
+         *
+         * @param size maximum number of cached chunks, 0 to disable the cache
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if size is negative
+         */
+        public Builder baseChunkCacheSize(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Base chunk cache size cannot be negative");
+            }
+            this.baseChunkCacheSize = size;
+            return this;
+        }
+        
+        /**
+         * Set chunk packet cache size in megabytes
+         * Players seeing the same blocks in a chunk receive the same built packet.
+         * The cache requires the base chunk cache to be enabled.
+         *
+         * @param megabytes estimated memory bound in megabytes, 0 to disable the cache
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if megabytes is negative
+         */
+        public Builder chunkPacketCacheMegabytes(int megabytes) {
+            if (megabytes < 0) {
+                throw new IllegalArgumentException("Chunk packet cache size cannot be negative");
+            }
+            this.chunkPacketCacheMegabytes = megabytes;
+            return this;
+        }
+        
+        /**
+         * Set multi-block change threshold
+         * When a view is shown, hidden or reordered for a player, or its blocks change, sparse changes
+         * are sent as multi-block changes grouped by section, and chunks with a denser section are resent in full.
+         *
+         * @param blocks maximum changed blocks per section (0-4096), 0 to always resend chunks
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if blocks is outside 0-4096
+         */
+        public Builder multiBlockChangeThreshold(int blocks) {
+            if (blocks < 0 || blocks > 4096) {
+                throw new IllegalArgumentException("Multi-block change threshold must be between 0 and 4096");
+            }
+            this.multiBlockChangeThreshold = blocks;
+            return this;
+        }
+        
+        /**
+         * Set chunk send budget per tick
+         * The budget is shared fairly across players, weighted by each stage's chunks per tick.
+         *
+         * @param chunks maximum number of chunks sent per tick across all players
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if chunks is not positive
+         */
+        public Builder chunkSendBudgetPerTick(int chunks) {
+            if (chunks <= 0) {
+                throw new IllegalArgumentException("Chunk send budget per tick must be positive");
+            }
+            this.chunkSendBudgetPerTick = chunks;
+            return this;
+        }
+        
+        /**
+         * Set executor strategy
+         * Use {@link #customExecutor(ExecutorService)} to supply the executor of {@link ExecutorStrategy#CUSTOM}.
+         *
+         * @param strategy executor strategy for chunk processing
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if strategy is null
+         */
+        public Builder executorStrategy(ExecutorStrategy strategy) {
+            if (strategy == null) {
+                throw new IllegalArgumentException("Executor strategy cannot be null");
+            }
+            this.executorStrategy = strategy;
+            return this;
+        }
+        
+        /**
+         * Set worker threads
+         * Defaults to the number of available processors.
+         *
+         * @param threads number of platform threads processing chunks
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if threads is not positive
+         */
+        public Builder workerThreads(int threads) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("Worker threads must be positive");
+            }
+            this.workerThreads = threads;
+            return this;
+        }
+        
+        /**
+         * Set worker queue capacity
+         *
+         * @param capacity maximum number of tasks waiting for a worker thread
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if capacity is not positive
+         */
+        public Builder workerQueueCapacity(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Worker queue capacity must be positive");
+            }
+            this.workerQueueCapacity = capacity;
+            return this;
+        }
+        
+        /**
+         * Set custom executor
+         * Selects {@link ExecutorStrategy#CUSTOM}. The executor stays owned by the caller and is not shut down by Blocket.
+         *
+         * @param executor executor that processes chunks
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if executor is null
+         */
+        public Builder customExecutor(ExecutorService executor) {
+            if (executor == null) {
+                throw new IllegalArgumentException("Custom executor cannot be null");
+            }
+            this.customExecutor = executor;
+            this.executorStrategy = ExecutorStrategy.CUSTOM;
+            return this;
+        }
+        
+        /**
+         * Set section build parallelism
+         * Defaults to the number of available processors.
+         *
+         * @param threads number of threads building sections, 1 to build sections serially
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if threads is not positive
+         */
+        public Builder sectionBuildParallelism(int threads) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("Section build parallelism must be positive");
+            }
+            this.sectionBuildParallelism = threads;
+            return this;
+        }
+        
+        /**
+         * Set chunk work queue capacity
+         *
+         * @param capacity maximum number of chunk builds waiting for a worker
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if capacity is not positive
+         */
+        public Builder chunkWorkQueueCapacity(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Chunk work queue capacity must be positive");
+            }
+            this.chunkWorkQueueCapacity = capacity;
+            return this;
+        }
+        
+        /**
+         * Set the maximum age of cached base chunk data in seconds
+         * Cached sections and shared packets older than this are extracted again from a fresh snapshot,
+         * so world changes that fire no event are not served forever.
+         *
+         * @param seconds maximum age in seconds
+         * @return this builder for chaining
+         * @throws IllegalArgumentException if seconds is not positive
+         */
+        public Builder baseChunkMaxAgeSeconds(int seconds) {
+            if (seconds <= 0) {
+                throw new IllegalArgumentException("Base chunk max age must be positive");
+            }
+            this.baseChunkMaxAgeSeconds = seconds;
+            return this;
+        }
+        
         /**
          * Build the final configuration
          * This method creates an immutable BlocketConfig instance with the current settings
@@ -323,6 +705,39 @@ public class BlocketConfig {
             if (maxObjectPoolSize <= 0) {
                 throw new IllegalArgumentException("Max object pool size must be positive");
             }
+            if (snapshotBudgetMillis <= 0) {
+                throw new IllegalArgumentException("Snapshot budget must be positive");
+            }
+            if (baseChunkCacheSize < 0) {
+                throw new IllegalArgumentException("Base chunk cache size cannot be negative");
+            }
+            if (chunkPacketCacheMegabytes < 0) {
+                throw new IllegalArgumentException("Chunk packet cache size cannot be negative");
+            }
+            if (multiBlockChangeThreshold < 0 || multiBlockChangeThreshold > 4096) {
+                throw new IllegalArgumentException("Multi-block change threshold must be between 0 and 4096");
+            }
+            if (chunkSendBudgetPerTick <= 0) {
+                throw new IllegalArgumentException("Chunk send budget per tick must be positive");
+            }
+            if (executorStrategy == ExecutorStrategy.CUSTOM && customExecutor == null) {
+                throw new IllegalArgumentException("Custom executor strategy requires an executor");
+            }
+            if (workerThreads <= 0) {
+                throw new IllegalArgumentException("Worker threads must be positive");
+            }
+            if (workerQueueCapacity <= 0) {
+                throw new IllegalArgumentException("Worker queue capacity must be positive");
+            }
+            if (sectionBuildParallelism <= 0) {
+                throw new IllegalArgumentException("Section build parallelism must be positive");
+            }
+            if (chunkWorkQueueCapacity <= 0) {
+                throw new IllegalArgumentException("Chunk work queue capacity must be positive");
+            }
+            if (baseChunkMaxAgeSeconds <= 0) {
+                throw new IllegalArgumentException("Base chunk max age must be positive");
+            }
             // preserveOriginalLighting does not require validation as it is a boolean value
         }
     }
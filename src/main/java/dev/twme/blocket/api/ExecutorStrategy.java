@@ -0,0 +1,28 @@
+package dev.twme.blocket.api;
+
+/**
+ * Strategy used to run chunk processing work off the main thread.
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public enum ExecutorStrategy {
+    /**
+     * A fixed pool of platform threads with a bounded work queue.
+     * Suited for CPU-bound chunk building; size it close to the number of cores.
+     */
+    PLATFORM_POOL,
+
+    /**
+     * A new virtual thread per task.
+     * Suited for servers where tasks spend much of their time waiting for snapshots or I/O.
+     */
+    VIRTUAL_THREADS,
+
+    /**
+     * An executor supplied by the plugin.
+     * Blocket does not shut this executor down.
+     */
+    CUSTOM
+}
@@ -23,6 +23,22 @@ public final class ChunkConstants {
     /** Bit shift operation constant: used to calculate chunk section index {@code (section << 4)} */
     public static final int SECTION_SHIFT = 4;
     
+    /** Number of blocks in a single chunk section (16 x 16 x 16) */
+    public static final int SECTION_VOLUME = 4096;
+    
+    /** Bit mask used to extract local coordinates within a chunk section */
+    public static final int LOCAL_COORDINATE_MASK = 15;
+    
+    // Constants related to block palettes
+    /** Global block state id of air, shared by all supported versions */
+    public static final int AIR_STATE_ID = 0;
+    
+    /** Minimum bits per entry of an indirect block palette */
+    public static final int MIN_PALETTE_BITS = 4;
+    
+    /** Maximum bits per entry of an indirect block palette before the global palette is required */
+    public static final int MAX_PALETTE_BITS = 8;
+    
     // Constants related to light data
     /** Light data array size: each chunk section requires 2048 bytes to store light data */
     public static final int LIGHT_DATA_SIZE = 2048;
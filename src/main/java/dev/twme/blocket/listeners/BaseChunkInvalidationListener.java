@@ -0,0 +1,174 @@
+package dev.twme.blocket.listeners;
+
+import java.util.List;
+
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockMultiPlaceEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import dev.twme.blocket.processors.BaseChunkCache;
+
+/**
+ * Listener that keeps the shared base chunk cache in sync with the world.
+ * Every real block change drops the cached data of the affected section, so that the next
+ * chunk build re-extracts it from a fresh snapshot.
+ *
+ * <p>Handled changes:
+ * <ul>
+ *   <li>Players breaking and placing blocks</li>
+ *   <li>Fluid flow, growth, fading, forming, burning and leaf decay</li>
+ *   <li>Block and entity explosions, pistons and entities changing blocks</li>
+ *   <li>Chunk and world unloads</li>
+ * </ul>
+ *
+ * <p>Physics events are not handled: they fire thousands of times per tick, mostly for blocks that
+ * do not change. Changes without an event are picked up once the cached data reaches its maximum age.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class BaseChunkInvalidationListener implements Listener {
+
+    private final BaseChunkCache baseChunkCache;
+
+    /**
+     * Creates a new listener for the given cache.
+     *
+     * @param baseChunkCache The cache to invalidate
+     */
+    public BaseChunkInvalidationListener(BaseChunkCache baseChunkCache) {
+        this.baseChunkCache = baseChunkCache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        invalidate(event.getBlock());
+        if (event instanceof BlockMultiPlaceEvent multiPlaceEvent) {
+            invalidateStates(multiPlaceEvent.getReplacedBlockStates());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        invalidate(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        invalidate(event.getBlock());
+        invalidateBlocks(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        invalidateBlocks(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        invalidatePiston(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        invalidatePiston(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        invalidateStates(event.getBlocks());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        baseChunkCache.invalidateChunk(event.getWorld().getUID(), event.getChunk().getX(), event.getChunk().getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        baseChunkCache.invalidateWorld(event.getWorld().getUID());
+    }
+
+    private void invalidatePiston(Block piston, List<Block> movedBlocks, BlockFace direction) {
+        invalidate(piston);
+        invalidate(piston.getRelative(direction));
+        for (Block block : movedBlocks) {
+            // Both the source and the destination of every moved block change
+            invalidate(block);
+            invalidate(block.getRelative(direction));
+        }
+    }
+
+    private void invalidateBlocks(List<Block> blocks) {
+        for (Block block : blocks) {
+            invalidate(block);
+        }
+    }
+
+    private void invalidateStates(List<BlockState> states) {
+        for (BlockState state : states) {
+            invalidate(state.getBlock());
+        }
+    }
+
+    private void invalidate(Block block) {
+        baseChunkCache.invalidateBlock(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ(),
+                block.getWorld().getMinHeight());
+    }
+}
@@ -1,6 +1,5 @@
 package dev.twme.blocket.managers;
 
-import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -8,19 +7,23 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
@@ -34,18 +37,25 @@ import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerCh
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerUnloadChunk;
 
 import dev.twme.blocket.api.BlocketAPI;
+import dev.twme.blocket.api.BlocketConfig;
+import dev.twme.blocket.api.ExecutorStrategy;
 import dev.twme.blocket.events.OnBlockChangeSendEvent;
 import dev.twme.blocket.exceptions.ChunkProcessingException;
 import dev.twme.blocket.models.Audience;
+import dev.twme.blocket.models.ComposedChunk;
+import dev.twme.blocket.models.PlayerOverlay;
 import dev.twme.blocket.models.Stage;
 import dev.twme.blocket.models.View;
+import dev.twme.blocket.models.VisibleBlock;
+import dev.twme.blocket.processors.BaseChunkCache;
+import dev.twme.blocket.processors.ChunkPacketCache;
 import dev.twme.blocket.processors.ChunkPacketData;
 import dev.twme.blocket.processors.ChunkProcessingContext;
 import dev.twme.blocket.processors.ChunkProcessorFactory;
 import dev.twme.blocket.types.BlocketChunk;
 import dev.twme.blocket.types.BlocketPosition;
-import dev.twme.blocket.utils.LRUCache;
-import dev.twme.blocket.utils.ObjectPool;
+import dev.twme.blocket.utils.BlockStateRegistry;
+import dev.twme.blocket.utils.MeteredExecutorService;
 import dev.twme.blocket.utils.PerformanceMonitor;
 import io.papermc.paper.math.Position;
 import lombok.Getter;
@@ -76,21 +86,18 @@ import lombok.NonNull;
 @Getter
 public class BlockChangeManager {
     private final BlocketAPI api;
-    private final ConcurrentHashMap<UUID, BukkitTask> blockChangeTasks = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<BlockData, Integer> blockDataToId = new ConcurrentHashMap<>();
-    private final ExecutorService executorService;
+    private final MeteredExecutorService executorService;
+    private final ChunkWorkQueue chunkWorkQueue;
 
-    private final Map<UUID, Map<BlocketChunk, Map<BlocketPosition, BlockData>>> playerBlockChanges = new ConcurrentHashMap<>();
-    private final Map<UUID, Map<String, Map<BlocketChunk, Set<BlocketPosition>>>> playerViewBlocks = new ConcurrentHashMap<>();
-    private final LRUCache<BlocketChunk, Map<BlocketPosition, BlockData>> blockDataCache;
+    private final Map<UUID, PlayerOverlay> playerOverlays = new ConcurrentHashMap<>();
     private final ChunkProcessorFactory chunkProcessorFactory;
-    private final ObjectPool<Map<BlocketPosition, BlockData>> blockDataMapPool;
-    private final ObjectPool<List<BaseChunk>> chunkListPool;
-    private final ObjectPool<byte[]> lightDataArrayPool;
-    private final ObjectPool<BitSet> bitSetPool;
-    private final ObjectPool<byte[][]> lightArrayPool;
-    private final ObjectPool<AbstractMap.SimpleEntry<BlocketChunk, Map<BlocketPosition, BlockData>>> entryPool;
+    private final ChunkPacketCache chunkPacketCache;
     private final PerformanceMonitor performanceMonitor;
+    private final ChunkSnapshotBroker snapshotBroker;
+    private final BlockSendPlanner sendPlanner;
+    private final ChunkSendScheduler chunkSendScheduler;
+    private final ClientChunkTracker clientChunkTracker;
+    private final PacketBatcher packetBatcher;
     private BukkitTask cacheCleanupTask;
 
     /**
@@ -101,34 +108,68 @@ public class BlockChangeManager {
      */
     public BlockChangeManager(BlocketAPI api) {
         this.api = api;
-        this.blockDataCache = new LRUCache<>(api.getConfig().getBlockCacheSize());
-        this.chunkProcessorFactory = new ChunkProcessorFactory();
-        // Uses configured object pool size to improve performance tuning flexibility
-        int maxPoolSize = api.getConfig().getMaxObjectPoolSize();
-        this.blockDataMapPool = new ObjectPool<>(HashMap::new, maxPoolSize / 2);
-        this.chunkListPool = new ObjectPool<>(ArrayList::new, maxPoolSize / 5);
-        this.lightDataArrayPool = new ObjectPool<>(() -> new byte[2048], maxPoolSize);
-        // Extended object pool support: Add pooling for more repeatedly created objects, using configured size
-        this.bitSetPool = new ObjectPool<>(() -> new BitSet(32), maxPoolSize / 3);
-        this.lightArrayPool = new ObjectPool<>(() -> new byte[32][2048], maxPoolSize / 5);
-        this.entryPool = new ObjectPool<>(() -> new AbstractMap.SimpleEntry<>(null, null), maxPoolSize / 2);
+        int baseChunkCacheSize = api.getConfig().getBaseChunkCacheSize();
+        this.chunkProcessorFactory = new ChunkProcessorFactory(
+                baseChunkCacheSize > 0 ? new BaseChunkCache(baseChunkCacheSize, api.getConfig().getBaseChunkMaxAgeSeconds()) : null,
+                api.getConfig().getSectionBuildParallelism());
+        // Shared packets are keyed by the base chunk epoch, so they need the base chunk cache
+        long chunkPacketCacheBytes = api.getConfig().getChunkPacketCacheMegabytes() * 1024L * 1024L;
+        this.chunkPacketCache = chunkPacketCacheBytes > 0 && baseChunkCacheSize > 0
+                ? new ChunkPacketCache(chunkPacketCacheBytes, api.getConfig().getBaseChunkMaxAgeSeconds())
+                : null;
         this.performanceMonitor = new PerformanceMonitor();
-        this.executorService = new ThreadPoolExecutor(
-                0,
-                Runtime.getRuntime().availableProcessors() * 2,
-                60L, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(),
-                r -> {
-                    Thread t = new Thread(r, "Blocket-BlockChange-Worker");
-                    t.setDaemon(true);
-                    return t;
-                }
-        );
+        this.executorService = createExecutorService(api.getConfig());
+        int workConcurrency = api.getConfig().getExecutorStrategy() == ExecutorStrategy.PLATFORM_POOL
+                ? api.getConfig().getWorkerThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.chunkWorkQueue = new ChunkWorkQueue(executorService, this::processAndSendChunk,
+                api.getConfig().getChunkWorkQueueCapacity(), workConcurrency);
+        this.clientChunkTracker = new ClientChunkTracker();
+        this.packetBatcher = new PacketBatcher(api.getOwnerPlugin());
+        this.snapshotBroker = new ChunkSnapshotBroker(api.getOwnerPlugin(), api.getConfig().getSnapshotBudgetMillis());
+        this.snapshotBroker.start();
+        this.sendPlanner = new BlockSendPlanner(api.getOwnerPlugin(), this, api.getConfig().getMultiBlockChangeThreshold());
+        this.sendPlanner.start();
+        this.chunkSendScheduler = new ChunkSendScheduler(api.getOwnerPlugin(), this, api.getConfig().getChunkSendBudgetPerTick());
+        this.chunkSendScheduler.start();
         
         // Start periodic cache cleanup task to prevent memory leaks
         startCacheCleanupTask();
     }
 
+    /**
+     * Creates the executor for chunk processing according to the configured strategy.
+     *
+     * @param config The configuration
+     * @return The metered executor service
+     */
+    private static MeteredExecutorService createExecutorService(BlocketConfig config) {
+        switch (config.getExecutorStrategy()) {
+            case VIRTUAL_THREADS:
+                ThreadFactory virtualFactory = Thread.ofVirtual().name("Blocket-BlockChange-Virtual-", 0).factory();
+                return new MeteredExecutorService("Virtual", Executors.newThreadPerTaskExecutor(virtualFactory), true);
+            case CUSTOM:
+                return new MeteredExecutorService("Custom", config.getCustomExecutor(), false);
+            case PLATFORM_POOL:
+            default:
+                AtomicInteger threadCount = new AtomicInteger();
+                // Core and max are equal, so the pool grows to its full size before tasks queue up
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                        config.getWorkerThreads(),
+                        config.getWorkerThreads(),
+                        60L, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(config.getWorkerQueueCapacity()),
+                        r -> {
+                            Thread t = new Thread(r, "Blocket-BlockChange-Worker-" + threadCount.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        }
+                );
+                pool.allowCoreThreadTimeOut(true);
+                return new MeteredExecutorService("Platform", pool, true);
+        }
+    }
+
     /**
      * Starts a periodic task to clean up stale cache entries and prevent memory leaks.
      * This task runs every 5 minutes and removes empty entries from player caches.
@@ -150,47 +191,14 @@ public class BlockChangeManager {
     private void performCacheCleanup() {
         AtomicInteger removedEntries = new AtomicInteger(0);
         
-        // Clean up empty player block changes
-        playerBlockChanges.entrySet().removeIf(entry -> {
-            Map<BlocketChunk, Map<BlocketPosition, BlockData>> playerCache = entry.getValue();
-            if (playerCache.isEmpty()) {
+        // Drop references to views that were removed from their stage, then empty overlays
+        playerOverlays.entrySet().removeIf(entry -> {
+            removedEntries.addAndGet(entry.getValue().removeOrphanedViews());
+            if (entry.getValue().isEmpty()) {
                 removedEntries.incrementAndGet();
                 return true;
             }
-            
-            // Remove empty chunk maps within player cache
-            playerCache.entrySet().removeIf(chunkEntry -> {
-                Map<BlocketPosition, BlockData> chunkMap = chunkEntry.getValue();
-                return chunkMap == null || chunkMap.isEmpty();
-            });
-            
-            return playerCache.isEmpty();
-        });
-        
-        // Clean up empty player view blocks
-        playerViewBlocks.entrySet().removeIf(entry -> {
-            Map<String, Map<BlocketChunk, Set<BlocketPosition>>> viewMap = entry.getValue();
-            if (viewMap.isEmpty()) {
-                return true;
-            }
-            
-            // Remove empty view entries
-            viewMap.entrySet().removeIf(viewEntry -> {
-                Map<BlocketChunk, Set<BlocketPosition>> chunkMap = viewEntry.getValue();
-                if (chunkMap == null || chunkMap.isEmpty()) {
-                    return true;
-                }
-                
-                // Remove empty chunk entries within view
-                chunkMap.entrySet().removeIf(chunkEntry -> {
-                    Set<BlocketPosition> positions = chunkEntry.getValue();
-                    return positions == null || positions.isEmpty();
-                });
-                
-                return chunkMap.isEmpty();
-            });
-            
-            return viewMap.isEmpty();
+            return false;
         });
         
         if (removedEntries.get() > 0) {
@@ -200,62 +208,74 @@ public class BlockChangeManager {
 
     /**
      * Validates cache consistency for a specific player.
-     * This method checks if the player's cache data is consistent and removes any orphaned entries.
+     * This method removes references to views that no longer belong to their stage.
      *
      * @param playerUUID The UUID of the player to validate cache for
      */
     public void validatePlayerCache(UUID playerUUID) {
-        Map<BlocketChunk, Map<BlocketPosition, BlockData>> playerCache = playerBlockChanges.get(playerUUID);
-        Map<String, Map<BlocketChunk, Set<BlocketPosition>>> viewMap = playerViewBlocks.get(playerUUID);
-        
-        if (playerCache == null || viewMap == null) {
-            return;
+        PlayerOverlay overlay = playerOverlays.get(playerUUID);
+        if (overlay != null) {
+            overlay.removeOrphanedViews();
         }
-        
-        // Remove chunks from player cache that are not referenced in any view
-        Set<BlocketChunk> referencedChunks = viewMap.values().stream()
-                .flatMap(chunkMap -> chunkMap.keySet().stream())
-                .collect(Collectors.toCollection(ConcurrentHashMap::newKeySet));
-        
-        playerCache.entrySet().removeIf(entry -> {
-            BlocketChunk chunk = entry.getKey();
-            if (!referencedChunks.contains(chunk)) {
-                blockDataCache.remove(chunk);
-                return true;
-            }
-            return false;
-        });
     }
 
     /**
      * Initializes block change tracking for a new player.
-     * Creates empty data structures for the player's block changes and view tracking.
+     * Creates an empty overlay for the player's visible views and per-player blocks.
      *
      * @param player The player to initialize tracking for
      */
     public void initializePlayer(@NonNull Player player) {
-        playerBlockChanges.computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>());
-        playerViewBlocks.computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>());
+        playerOverlays.computeIfAbsent(player.getUniqueId(), this::createOverlay);
+    }
+
+    /**
+     * Creates an overlay whose visible block changes are sent to the player by the send planner.
+     * Single-block changes are reported per position, and a shown, hidden or reordered view
+     * per section, so the planner only sends blocks that actually changed.
+     *
+     * @param playerId The UUID of the player the overlay belongs to
+     * @return The new overlay
+     */
+    private PlayerOverlay createOverlay(UUID playerId) {
+        return new PlayerOverlay(new PlayerOverlay.ChangeListener() {
+            @Override
+            public void onVisibleBlockChanged(PlayerOverlay overlay, World world, BlocketPosition position, BlockData previous) {
+                Player player = Bukkit.getPlayer(playerId);
+                if (player != null) {
+                    sendPlanner.markVisibleChange(player, overlay, world, position, previous);
+                }
+            }
+
+            @Override
+            public void onSectionChanged(PlayerOverlay overlay, World world, BlocketChunk chunk, int sectionY,
+                                         int[] indexes, BlockData[] previous) {
+                Player player = Bukkit.getPlayer(playerId);
+                if (player != null) {
+                    sendPlanner.markVisibleSection(player, overlay, world, chunk, sectionY, indexes, previous);
+                }
+            }
+        });
     }
 
     /**
      * Removes all tracking data for a player when they disconnect or leave a stage.
-     * Cleans up memory by removing the player's block change cache and view tracking.
+     * Only the player's view references and per-player blocks are dropped; view data is shared.
      *
      * @param player The player to remove tracking for
      */
     public void removePlayer(@NonNull Player player) {
-        UUID playerUUID = player.getUniqueId();
-        Map<BlocketChunk, Map<BlocketPosition, BlockData>> playerChanges = playerBlockChanges.remove(playerUUID);
-        if (playerChanges != null) {
-            playerChanges.keySet().forEach(blockDataCache::remove);
-        }
-        playerViewBlocks.remove(playerUUID);
+        playerOverlays.remove(player.getUniqueId());
+        sendPlanner.cancel(player.getUniqueId());
+        chunkSendScheduler.cancel(player.getUniqueId());
+        chunkWorkQueue.cancel(player.getUniqueId());
+        clientChunkTracker.removePlayer(player.getUniqueId());
+        packetBatcher.removePlayer(player.getUniqueId());
     }
 
     /**
      * Clears all cached data associated with a specific stage.
-     * This method removes all player caches that contain blocks from views belonging to the specified stage.
+     * This method removes the stage's views from every player's overlay.
      * Should be called when a stage is deleted to prevent memory leaks and stale cache data.
      *
      * @param stage The stage whose cache data should be cleared
@@ -265,42 +285,9 @@ public class BlockChangeManager {
             return;
         }
 
-        // Get all view names from the stage
-        Set<String> stageViewNames = stage.getViews().stream()
-                .map(View::getName)
-                .collect(Collectors.toCollection(ConcurrentHashMap::newKeySet));
-        if (stageViewNames.isEmpty()) {
-            return;
-        }
-
-        // Clear cache data for all players
-        playerViewBlocks.forEach((playerUUID, viewMap) -> {
-            // Remove all views belonging to this stage from player's view tracking
-            stageViewNames.forEach(viewName -> {
-                Map<BlocketChunk, Set<BlocketPosition>> removedViewBlocks = viewMap.remove(viewName);
-                if (removedViewBlocks != null) {
-                    // Also remove corresponding blocks from player's block changes cache
-                    Map<BlocketChunk, Map<BlocketPosition, BlockData>> playerCache = playerBlockChanges.get(playerUUID);
-                    if (playerCache != null) {
-                        removedViewBlocks.forEach((chunk, positions) -> {
-                            Map<BlocketPosition, BlockData> chunkMap = playerCache.get(chunk);
-                            if (chunkMap != null) {
-                                positions.forEach(chunkMap::remove);
-                                if (chunkMap.isEmpty()) {
-                                    playerCache.remove(chunk);
-                                }
-                            }
-                            // Clear chunk from cache to force regeneration
-                            blockDataCache.remove(chunk);
-                        });
-                    }
-                }
-            });
-        });
-
-        // Clear any cached chunk data that might belong to this stage
-        // Since we can't directly map chunks to stages, we clear all cache to be safe
-        blockDataCache.clear();
+        playerOverlays.values().forEach(overlay -> overlay.removeStage(stage));
+        sendPlanner.cancel(stage);
+        chunkSendScheduler.cancel(stage);
 
         api.getOwnerPlugin().getLogger().info(String.format("Cleared cache data for stage: %s", stage.getName()));
     }
@@ -316,94 +303,115 @@ public class BlockChangeManager {
             return;
         }
 
-        playerViewBlocks.forEach((playerUUID, viewMap) -> {
-            Map<BlocketChunk, Set<BlocketPosition>> removedViewBlocks = viewMap.remove(viewName);
-            if (removedViewBlocks != null) {
-                // Also remove corresponding blocks from player's block changes cache
-                Map<BlocketChunk, Map<BlocketPosition, BlockData>> playerCache = playerBlockChanges.get(playerUUID);
-                if (playerCache != null) {
-                    removedViewBlocks.forEach((chunk, positions) -> {
-                        Map<BlocketPosition, BlockData> chunkMap = playerCache.get(chunk);
-                        if (chunkMap != null) {
-                            positions.forEach(chunkMap::remove);
-                            if (chunkMap.isEmpty()) {
-                                playerCache.remove(chunk);
-                            }
-                        }
-                        // Clear chunk from cache to force regeneration
-                        blockDataCache.remove(chunk);
-                    });
-                }
-            }
-        });
+        playerOverlays.values().forEach(overlay -> overlay.forgetView(viewName));
     }
 
     /**
      * Hide a view from a player.
-     * This removes the view's blocks from the player's cache and then sends updated blocks so the player no longer sees them.
+     * This removes the view from the player's overlay; the blocks that changed for the player are sent at the next tick.
      * @param player The player to hide the view from
      * @param view The view to hide from the player
      */
     public void hideView(@NonNull Player player, @NonNull View view) {
-        removeViewFromPlayer(player, view);
-        view.getStage().sendBlocksToAudience();
+        PlayerOverlay overlay = playerOverlays.get(player.getUniqueId());
+        if (overlay == null) return;
+
+        overlay.hideView(view);
     }
 
     /**
-     * Add a view's blocks to a player's cache in place.
-     * @param player The player to add the view to
-     * @param view The view to add to the player's cache
+     * Show a view to a player.
+     * This adds the view to the player's overlay; the blocks that changed for the player are sent at the next tick.
+     * @param player The player to show the view to
+     * @param view The view to show to the player
      */
-    public void addViewToPlayer(@NonNull Player player, @NonNull View view) {
-        UUID playerUUID = player.getUniqueId();
-        Map<BlocketChunk, Map<BlocketPosition, BlockData>> playerCache = playerBlockChanges.get(playerUUID);
-        Map<String, Map<BlocketChunk, Set<BlocketPosition>>> viewMap = playerViewBlocks.get(playerUUID);
+    public void showView(@NonNull Player player, @NonNull View view) {
+        PlayerOverlay overlay = playerOverlays.get(player.getUniqueId());
+        if (overlay == null) return;
 
-        if (playerCache == null || viewMap == null) return;
+        overlay.showView(view);
+    }
 
-        Map<BlocketChunk, Set<BlocketPosition>> viewBlockPositions = new ConcurrentHashMap<>();
+    /**
+     * Check whether a view is currently visible to a player.
+     * @param player The player
+     * @param view The view
+     * @return true if the view is part of the player's overlay
+     */
+    public boolean isViewVisible(@NonNull Player player, @NonNull View view) {
+        PlayerOverlay overlay = playerOverlays.get(player.getUniqueId());
+        return overlay != null && overlay.getVisibleView(view.getName()) == view;
+    }
 
-        view.getBlocks().forEach((chunk, chunkData) -> {
-            Map<BlocketPosition, BlockData> chunkMap = playerCache.computeIfAbsent(chunk, c -> new ConcurrentHashMap<>());
-            chunkData.forEach((pos, blockData) -> {
-                chunkMap.put(pos, blockData);
-                viewBlockPositions.computeIfAbsent(chunk, c -> ConcurrentHashMap.newKeySet()).add(pos);
-            });
-            blockDataCache.remove(chunk);
-        });
+    /**
+     * Get the virtual block a player sees at a position in their current world.
+     * This is one primitive lookup per visible layer, so it is cheap enough for every interaction packet.
+     * @param player The player
+     * @param x The block X coordinate
+     * @param y The block Y coordinate
+     * @param z The block Z coordinate
+     * @return The visible block and the view it comes from, or null if the player sees no virtual block there
+     */
+    public VisibleBlock getVisibleBlock(@NonNull Player player, int x, int y, int z) {
+        PlayerOverlay overlay = playerOverlays.get(player.getUniqueId());
+        return overlay != null ? overlay.getVisibleBlock(player.getWorld(), x, y, z) : null;
+    }
 
-        viewMap.put(view.getName(), viewBlockPositions);
+    /**
+     * Update the layer order of every viewer after a view's zIndex changed.
+     * @param view The view whose zIndex changed
+     */
+    public void reorderView(@NonNull View view) {
+        playerOverlays.values().forEach(overlay -> overlay.reorderView(view));
     }
 
     /**
-     * Remove a view's blocks from a player's cache in place.
+     * Make a view visible to a player.
+     * The view's blocks are referenced, not copied, so this is independent of the view size.
+     * @param player The player to add the view to
+     * @param view The view to add to the player's overlay
+     */
+    public void addViewToPlayer(@NonNull Player player, @NonNull View view) {
+        PlayerOverlay overlay = playerOverlays.get(player.getUniqueId());
+        if (overlay == null) return;
+
+        overlay.showView(view);
+    }
+
+    /**
+     * Hide a view from a player's overlay.
+     * The view stays hidden for the player until it is added again, even if its blocks change.
      * @param player The player to remove the view from
-     * @param view The view to remove from the player's cache
+     * @param view The view to remove from the player's overlay
      */
     public void removeViewFromPlayer(@NonNull Player player, @NonNull View view) {
-        UUID playerUUID = player.getUniqueId();
-        Map<BlocketChunk, Map<BlocketPosition, BlockData>> playerCache = playerBlockChanges.get(playerUUID);
-        Map<String, Map<BlocketChunk, Set<BlocketPosition>>> viewMap = playerViewBlocks.get(playerUUID);
-
-        if (playerCache == null || viewMap == null) return;
+        PlayerOverlay overlay = playerOverlays.get(player.getUniqueId());
+        if (overlay == null) return;
 
-        Map<BlocketChunk, Set<BlocketPosition>> viewBlocks = viewMap.remove(view.getName());
-        if (viewBlocks == null) return;
+        overlay.hideView(view);
+    }
 
-        viewBlocks.forEach((chunk, positions) -> {
-            Map<BlocketPosition, BlockData> chunkMap = playerCache.get(chunk);
-            if (chunkMap != null) {
-                positions.forEach(chunkMap::remove);
-                if (chunkMap.isEmpty()) {
-                    playerCache.remove(chunk);
-                }
-            }
-            blockDataCache.remove(chunk);
-        });
+    /**
+     * Apply a change of a view's block for one of its viewers.
+     * The block itself is already stored in the view; this only makes sure the viewer references
+     * the view, drops any per-player block that would cover the change, and sends the block at the next tick.
+     * @param player The viewer
+     * @param view The view whose block changed
+     * @param chunk The chunk containing the block
+     * @param pos The position of the block
+     * @param previous The block the view stored at the position before the change, or null if it had none
+     */
+    public void applyViewBlockChange(@NonNull Player player, @NonNull View view, @NonNull BlocketChunk chunk, @NonNull BlocketPosition pos, BlockData previous) {
+        PlayerOverlay overlay = playerOverlays.computeIfAbsent(player.getUniqueId(), this::createOverlay);
+        if (overlay.showViewUnlessHidden(view)) {
+            overlay.applyViewBlockChange(view.getStage().getWorld(), view, pos, previous);
+        }
     }
 
     /**
      * Apply a single block change for a player. If data is null, remove block.
+     * The change is stored in the player's diff layer unless it matches the named view,
+     * in which case the position simply resolves through the view again.
      * @param player The player to apply the block change for
      * @param chunk The chunk containing the block
      * @param pos The position of the block
@@ -411,39 +419,13 @@ public class BlockChangeManager {
      * @param viewName The name of the view this block change belongs to
      */
     public void applyBlockChange(@NonNull Player player, @NonNull BlocketChunk chunk, @NonNull BlocketPosition pos, BlockData data, String viewName) {
-        UUID playerUUID = player.getUniqueId();
-        Map<BlocketChunk, Map<BlocketPosition, BlockData>> playerCache = playerBlockChanges.computeIfAbsent(playerUUID, k -> new ConcurrentHashMap<>());
-        Map<BlocketPosition, BlockData> chunkMap = playerCache.computeIfAbsent(chunk, c -> new ConcurrentHashMap<>());
-        Map<String, Map<BlocketChunk, Set<BlocketPosition>>> viewMap = playerViewBlocks.computeIfAbsent(playerUUID, k -> new ConcurrentHashMap<>());
-
-        blockDataCache.remove(chunk);
+        PlayerOverlay overlay = playerOverlays.computeIfAbsent(player.getUniqueId(), this::createOverlay);
+        View view = viewName != null ? overlay.getVisibleView(viewName) : null;
 
-        if (data == null) {
-            chunkMap.remove(pos);
-            if (chunkMap.isEmpty()) {
-                playerCache.remove(chunk);
-            }
-
-            if (viewName != null) {
-                Optional.ofNullable(viewMap.get(viewName)).ifPresent(viewChunks -> {
-                    Optional.ofNullable(viewChunks.get(chunk)).ifPresent(positions -> {
-                        positions.remove(pos);
-                        if (positions.isEmpty()) {
-                            viewChunks.remove(chunk);
-                            if (viewChunks.isEmpty()) {
-                                viewMap.remove(viewName);
-                            }
-                        }
-                    });
-                });
-            }
+        if (data == null || (view != null && data.equals(view.getBlock(pos)))) {
+            overlay.removeDiff(player.getWorld(), pos);
         } else {
-            chunkMap.put(pos, data);
-            if (viewName != null) {
-                viewMap.computeIfAbsent(viewName, k -> new ConcurrentHashMap<>())
-                        .computeIfAbsent(chunk, c -> ConcurrentHashMap.newKeySet())
-                        .add(pos);
-            }
+            overlay.setDiff(player.getWorld(), pos, data);
         }
     }
 
@@ -451,24 +433,31 @@ public class BlockChangeManager {
      * Retrieve block changes for a player filtered by requested chunks.
      */
     private Map<BlocketChunk, Map<BlocketPosition, BlockData>> getBlockChangesForPlayer(@NonNull Player player, @NonNull Collection<BlocketChunk> chunks) {
-        Map<BlocketChunk, Map<BlocketPosition, BlockData>> changes = playerBlockChanges.get(player.getUniqueId());
-        if (changes == null || changes.isEmpty() || chunks.isEmpty()) {
+        PlayerOverlay overlay = playerOverlays.get(player.getUniqueId());
+        if (overlay == null || chunks.isEmpty()) {
             return Collections.emptyMap();
         }
 
-        return chunks.stream()
-                .map(chunk -> {
-                    Map<BlocketPosition, BlockData> data = blockDataCache.get(chunk);
-                    if (data == null) {
-                        data = changes.get(chunk);
-                        if (data != null && !data.isEmpty()) {
-                            blockDataCache.put(chunk, data);
-                        }
-                    }
-                    return data != null && !data.isEmpty() ? new AbstractMap.SimpleEntry<>(chunk, data) : null;
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        Map<BlocketChunk, Map<BlocketPosition, BlockData>> changes = new HashMap<>();
+        for (BlocketChunk chunk : chunks) {
+            Map<BlocketPosition, BlockData> data = overlay.compose(chunk);
+            if (data != null && !data.isEmpty()) {
+                changes.put(chunk, data);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Gets the virtual blocks a player currently sees in a single chunk.
+     *
+     * @param player The player to get the block changes for
+     * @param chunk The chunk to get the block changes in
+     * @return The blocks the player sees in the chunk, or null if there are none
+     */
+    public ComposedChunk getBlockChanges(@NonNull Player player, @NonNull BlocketChunk chunk) {
+        PlayerOverlay overlay = playerOverlays.get(player.getUniqueId());
+        return overlay != null ? overlay.composeSections(chunk) : null;
     }
 
     /**
@@ -483,6 +472,8 @@ public class BlockChangeManager {
 
     /**
      * Sends block changes for a stage to an audience with optional unloading.
+     * The chunks are collected per player until the next tick and then queued in the global
+     * chunk send scheduler, which spreads them over ticks.
      * @param stage The stage containing the blocks to send
      * @param audience The audience to send the block changes to
      * @param chunks The chunks containing the blocks to send
@@ -496,25 +487,7 @@ public class BlockChangeManager {
                     Map<BlocketChunk, Map<BlocketPosition, BlockData>> blockChanges = getBlockChangesForPlayer(player, chunks);
                     Bukkit.getScheduler().runTask(api.getOwnerPlugin(), () -> new OnBlockChangeSendEvent(stage, blockChanges).callEvent());
 
-                    AtomicInteger chunkIndex = new AtomicInteger(0);
-                    
-                    // Thread safety: Check and cancel existing tasks before adding new tasks to prevent task overlap and leaks
-                    UUID playerUUID = player.getUniqueId();
-                    BukkitTask existingTask = blockChangeTasks.get(playerUUID);
-                    if (existingTask != null && !existingTask.isCancelled()) {
-                        existingTask.cancel();
-                    }
-                    
-                    BukkitTask task = Bukkit.getScheduler().runTaskTimer(api.getOwnerPlugin(), () -> {
-                        if (chunkIndex.get() >= chunkList.size()) {
-                            cancelTask(playerUUID);
-                            return;
-                        }
-                        for (int i = 0; i < stage.getChunksPerTick() && chunkIndex.get() < chunkList.size(); i++) {
-                            sendChunkPacket(player, chunkList.get(chunkIndex.getAndIncrement()), unload);
-                        }
-                    }, 0L, 1L);
-                    blockChangeTasks.put(playerUUID, task);
+                    sendPlanner.markChunks(player, stage, chunkList, unload);
                 });
     }
 
@@ -524,89 +497,211 @@ public class BlockChangeManager {
      * @param blocks The set of block positions to send changes for
      */
     public void sendMultiBlockChange(@NonNull Player player, @NonNull Set<BlocketPosition> blocks) {
-        Map<BlocketChunk, Map<BlocketPosition, BlockData>> playerChanges = playerBlockChanges.get(player.getUniqueId());
-        if (playerChanges == null) return;
-
-        final Map<Position, BlockData> blocksToSend = blocks.stream()
-                .map(pos -> {
-                    Map<BlocketPosition, BlockData> chunkData = playerChanges.get(pos.toBlocketChunk());
-                    if (chunkData != null) {
-                        BlockData blockData = chunkData.get(pos);
-                        if (blockData != null) {
-                            return new AbstractMap.SimpleEntry<>(pos.toPosition(), blockData);
-                        }
-                    }
-                    return null;
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        PlayerOverlay overlay = playerOverlays.get(player.getUniqueId());
+        if (overlay == null) return;
+
+        final Map<Position, BlockData> blocksToSend = new HashMap<>();
+        for (BlocketPosition pos : blocks) {
+            VisibleBlock visible = overlay.getVisibleBlock(player.getWorld(), pos.getX(), pos.getY(), pos.getZ());
+            if (visible != null) {
+                blocksToSend.put(pos.toPosition(), visible.blockData());
+            }
+        }
 
         if (!blocksToSend.isEmpty()) {
             player.sendMultiBlockChange(blocksToSend);
         }
     }
 
-    private void cancelTask(UUID playerId) {
-        Optional.ofNullable(blockChangeTasks.remove(playerId)).ifPresent(BukkitTask::cancel);
-    }
-
     /**
      * Sends a chunk packet to the specified player.
+     * The build is queued in the chunk work queue, which merges it with a waiting build of the same chunk.
      *
      * @param player The target player to send the chunk packet to
      * @param chunk The chunk to be sent
      * @param unload Whether this is an unload operation
+     * @return true if the chunk was queued, false if the work queue is full
      */
-    public void sendChunkPacket(@NonNull Player player, @NonNull BlocketChunk chunk, boolean unload) {
-        executorService.submit(() -> processAndSendChunk(player, chunk, unload));
+    public boolean sendChunkPacket(@NonNull Player player, @NonNull BlocketChunk chunk, boolean unload) {
+        if (chunkWorkQueue.submit(player, chunk, unload)) {
+            return true;
+        }
+        // The chunk is sent with the next refresh or chunk load
+        performanceMonitor.incrementCounter("rejectedChunkTasks");
+        return false;
     }
 
-    /**
-     * Processes and sends a chunk packet.
-     *
-     * @param player The target player
-     * @param chunk The chunk to process
-     * @param unload Whether this is an unload operation
-     */
     /**
      * Main method for processing and sending chunk packets
-     * Refactored into smaller methods to reduce complexity and improve maintainability
+     * Chunks the client already shows with the same overlay are skipped.
+     * Players that see the same overlay of a chunk share one build through the chunk packet cache.
+     * The chunk snapshot is requested from the main thread through the snapshot broker,
+     * and the packet is built on the worker pool once the snapshot is available.
      *
      * @param player Target player
      * @param chunk Chunk to process
      * @param unload Whether this is an unload operation
+     * @return Future completed once the chunk is sent or has failed, or null if nothing is left to wait for
      */
-    private void processAndSendChunk(Player player, BlocketChunk chunk, boolean unload) {
+    private CompletableFuture<?> processAndSendChunk(Player player, BlocketChunk chunk, boolean unload) {
         try (PerformanceMonitor.Timer timer = performanceMonitor.startTimer("processAndSendChunk")) {
-            executeChunkProcessingPipeline(player, chunk, unload);
+            // Step 1: Validate input parameters
+            validateChunkProcessingInputs(player, chunk);
+            
+            // Step 2: Create processing context
+            ChunkProcessingContext context = createProcessingContext(player, chunk, unload);
+            World world = player.getWorld();
+            
+            // Unload packets do not need world data
+            if (context.isUnload()) {
+                sendChunkPackets(context.getPacketUser(), chunk, createChunkPacketData(context, null, null));
+                clientChunkTracker.onChunkSent(player.getUniqueId(), chunk.x(), chunk.z(), null);
+                return null;
+            }
+
+            ChunkPacketCache.OverlayFingerprint version = ChunkPacketCache.fingerprint(context.getCustomBlockData(), BlockStateRegistry::getStateId);
+            if (clientChunkTracker.isCurrent(player.getUniqueId(), chunk, version)) {
+                performanceMonitor.incrementCounter("skippedCurrentChunks");
+                return null;
+            }
+            
+            // Step 3: Reuse or build the packet data, sharing in-flight builds of the same packet
+            ChunkProcessorFactory.ChunkProcessingOptions options = createProcessingOptions(context);
+            ChunkPacketCache.PacketKey packetKey = chunkPacketCache != null
+                ? chunkProcessorFactory.createPacketKey(player, chunk, context.getCustomBlockData(), options)
+                : null;
+            CompletableFuture<ChunkPacketData> packetData = packetKey != null
+                ? chunkPacketCache.getOrBuild(packetKey, () -> buildChunkPacketData(context, options))
+                : buildChunkPacketData(context, options);
+            
+            // Step 4: Send packet to client
+            return packetData
+                .thenAccept(data -> {
+                    sendChunkPackets(context.getPacketUser(), chunk, data);
+                    clientChunkTracker.onChunkSent(player.getUniqueId(), chunk.x(), chunk.z(), version);
+                })
+                .exceptionally(throwable -> {
+                    if (isDeferred(throwable)) {
+                        requeueDeferredChunk(player, chunk, world);
+                    } else {
+                        handleChunkProcessingFailure(player, chunk, throwable);
+                    }
+                    return null;
+                });
         } catch (ChunkProcessingException e) {
             handleKnownChunkProcessingError(player, chunk, e);
         } catch (Exception e) {
             handleUnknownChunkProcessingError(player, chunk, e);
         }
+        return null;
     }
 
     /**
-     * Execute all steps of the chunk processing pipeline
-     * Decompose complex processing logic into clear steps
+     * Build the chunk packet data
+     * Builds directly from the shared base sections when another build already extracted them,
+     * otherwise acquires the snapshot on the main thread and builds on the worker pool.
+     * The build is skipped if the player went offline or changed world while the snapshot was acquired.
+     * If the worker pool rejects the build or it is skipped, every player still waiting for it
+     * gives the chunk back to the work queue.
      *
-     * @param player Target player
-     * @param chunk Chunk to process
-     * @param unload Whether this is an unload operation
-     * @throws ChunkProcessingException If an error occurs during processing
+     * @param context Processing context
+     * @param options Processing options
+     * @return Future completed with the packet data
      */
-    private void executeChunkProcessingPipeline(Player player, BlocketChunk chunk, boolean unload) throws ChunkProcessingException {
-        // Step 1: Validate input parameters
-        validateChunkProcessingInputs(player, chunk);
-        
-        // Step 2: Create processing context
-        ChunkProcessingContext context = createProcessingContext(player, chunk, unload);
-        
-        // Step 3: Create chunk packet data
-        ChunkPacketData packetData = createChunkPacketData(context);
-        
-        // Step 4: Send packet to client
-        sendChunkPackets(context.getPacketUser(), chunk, packetData);
+    private CompletableFuture<ChunkPacketData> buildChunkPacketData(ChunkProcessingContext context, ChunkProcessorFactory.ChunkProcessingOptions options) {
+        try {
+            BaseChunkCache baseChunkCache = chunkProcessorFactory.getBaseChunkCache();
+            long baseEpoch = baseChunkCache != null ? baseChunkCache.currentEpoch() : BaseChunkCache.NO_EPOCH;
+            ChunkPacketData cachedData = createCachedChunkPacketData(context, options);
+            if (cachedData != null) {
+                return CompletableFuture.completedFuture(cachedData);
+            }
+            
+            options.baseEpoch(baseEpoch);
+            BlocketChunk chunk = context.getChunk();
+            Player player = context.getPlayer();
+            World world = player.getWorld();
+            return snapshotBroker.request(world, chunk.x(), chunk.z())
+                .thenApplyAsync(snapshot -> {
+                    if (!player.isOnline() || !player.getWorld().equals(world)) {
+                        throw new CancellationException("Player left the world before the chunk was built.");
+                    }
+                    try {
+                        return createChunkPacketData(context, options, snapshot);
+                    } catch (ChunkProcessingException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executorService);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Creates chunk packet data from cached base sections only.
+     *
+     * @param context Processing context
+     * @param options Processing options
+     * @return The chunk packet data, or null if the base sections are not cached
+     * @throws ChunkProcessingException if packet data creation fails
+     */
+    private ChunkPacketData createCachedChunkPacketData(ChunkProcessingContext context, ChunkProcessorFactory.ChunkProcessingOptions options) throws ChunkProcessingException {
+        try (PerformanceMonitor.Timer timer = performanceMonitor.startTimer("createChunkPacketData")) {
+            ChunkPacketData packetData = chunkProcessorFactory.createCachedChunkPacketData(
+                context.getPlayer(), context.getChunk(), context.getCustomBlockData(), options);
+            if (packetData != null) {
+                performanceMonitor.incrementCounter("baseSectionCacheHits");
+                performanceMonitor.incrementCounter("fullChunkPackets");
+            }
+            return packetData;
+        }
+    }
+
+    /**
+     * Check whether a chunk build was rejected by the worker pool or skipped for a departed player
+     *
+     * @param throwable Failure, possibly wrapped in a CompletionException
+     * @return true if the build did not run
+     */
+    private static boolean isDeferred(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause() : throwable;
+        return cause instanceof RejectedExecutionException || cause instanceof CancellationException;
+    }
+
+    /**
+     * Give a chunk whose build did not run back to the work queue
+     * The chunk is dropped if the player left the world it was built for; if the work queue is full
+     * as well, it is sent with the next refresh or chunk load.
+     *
+     * @param player Related player
+     * @param chunk Related chunk
+     * @param world World the chunk was built for
+     */
+    private void requeueDeferredChunk(Player player, BlocketChunk chunk, World world) {
+        performanceMonitor.incrementCounter("deferredChunkBuilds");
+        if (player.isOnline() && player.getWorld().equals(world)) {
+            sendChunkPacket(player, chunk, false);
+        }
+    }
+
+    /**
+     * Handle a failure reported by an asynchronous chunk processing stage
+     *
+     * @param player Related player
+     * @param chunk Related chunk
+     * @param throwable Failure, possibly wrapped in a CompletionException
+     */
+    private void handleChunkProcessingFailure(Player player, BlocketChunk chunk, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause() : throwable;
+        if (cause instanceof ChunkProcessingException e) {
+            handleKnownChunkProcessingError(player, chunk, e);
+        } else if (cause instanceof Exception e) {
+            handleUnknownChunkProcessingError(player, chunk, e);
+        } else {
+            handleUnknownChunkProcessingError(player, chunk, new ChunkProcessingException("Chunk processing failed.", cause));
+        }
     }
 
     /**
@@ -666,46 +761,48 @@ public class BlockChangeManager {
             if (packetUser == null) {
                 throw new ChunkProcessingException("Failed to get PacketUser for player.");
             }
-            Map<BlocketPosition, BlockData> customBlockData = unload ? null : getBlockChangesForPlayer(player, Collections.singleton(chunk)).get(chunk);
+            ComposedChunk customBlockData = unload ? null : getBlockChanges(player, chunk);
             return new ChunkProcessingContext(player, chunk, packetUser, customBlockData, unload);
         } catch (Exception e) {
             throw new ChunkProcessingException("Error creating processing context.", e);
         }
     }
 
+    /**
+     * Creates the chunk processing options from the configuration.
+     *
+     * @param context The processing context
+     * @return The processing options
+     */
+    private ChunkProcessorFactory.ChunkProcessingOptions createProcessingOptions(ChunkProcessingContext context) {
+        // Use configuration to determine lighting processing strategy
+        boolean preserveLighting = api.getConfig().isPreserveOriginalLighting();
+        return new ChunkProcessorFactory.ChunkProcessingOptions(context.getPacketUser())
+            .useEmptyLighting(!preserveLighting)
+            .preserveOriginalLighting(preserveLighting);
+    }
+
     /**
      * Creates chunk packet data.
      *
      * @param context The processing context
+     * @param options The processing options, or null for unload operations
+     * @param snapshot The chunk snapshot, or null for unload operations
      * @return The chunk packet data
      * @throws ChunkProcessingException if packet data creation fails
      */
-    private ChunkPacketData createChunkPacketData(ChunkProcessingContext context) throws ChunkProcessingException {
+    private ChunkPacketData createChunkPacketData(ChunkProcessingContext context, ChunkProcessorFactory.ChunkProcessingOptions options, ChunkSnapshot snapshot) throws ChunkProcessingException {
         try (PerformanceMonitor.Timer timer = performanceMonitor.startTimer("createChunkPacketData")) {
             if (context.isUnload()) {
                 performanceMonitor.incrementCounter("emptyChunkPackets");
                 return createEmptyChunkPacketData(context);
             }
 
-            // Use configuration to determine lighting processing strategy
-            boolean preserveLighting = api.getConfig().isPreserveOriginalLighting();
-            ChunkProcessorFactory.ChunkProcessingOptions options = new ChunkProcessorFactory.ChunkProcessingOptions(context.getPacketUser())
-                .useEmptyLighting(!preserveLighting)
-                .preserveOriginalLighting(preserveLighting);
-            Column column = chunkProcessorFactory.createChunkColumn(context.getPlayer(), context.getChunk(), context.getCustomBlockData(), options);
-            
-            // Determine light data processing strategy based on configuration
-            LightData lightData;
-            if (preserveLighting) {
-                // Extract correct light data from Column
-                lightData = extractLightDataFromColumn(column, context);
-            } else {
-                // Backward compatibility: use empty light data
-                lightData = createEmptyLightData(context);
-            }
+            // Missing base sections are extracted from the snapshot and shared with later builds
+            ChunkPacketData packetData = chunkProcessorFactory.createChunkPacketData(context.getPlayer(), context.getChunk(), snapshot, context.getCustomBlockData(), options);
 
             performanceMonitor.incrementCounter("fullChunkPackets");
-            return new ChunkPacketData(column, lightData);
+            return packetData;
         } catch (Exception e) {
             throw new ChunkProcessingException("Error creating chunk packet data.", e);
         }
@@ -724,38 +821,6 @@ public class BlockChangeManager {
         return new ChunkPacketData(emptyColumn, emptyLightData);
     }
 
-    /**
-     * Extracts light data from the Column object created by ChunkProcessorFactory.
-     * This method retrieves the proper lighting data when preserveOriginalLighting is enabled.
-     *
-     * @param column The column containing chunk data with lighting information
-     * @param context The processing context
-     * @return Light data extracted from the column
-     * @throws ChunkProcessingException if light data extraction fails
-     */
-    private LightData extractLightDataFromColumn(Column column, ChunkProcessingContext context) throws ChunkProcessingException {
-        try {
-            // Use LightDataProcessor to create correct light data
-            // Since the Column object is created by ChunkProcessorFactory, it already contains correct light processing
-            // We need to extract light data from the original chunk snapshot
-            
-            int ySections = context.getPacketUser().getTotalWorldHeight() >> 4;
-            org.bukkit.Chunk bukkitChunk = context.getPlayer().getWorld().getChunkAt(context.getChunk().x(), context.getChunk().z());
-            org.bukkit.ChunkSnapshot chunkSnapshot = bukkitChunk.getChunkSnapshot();
-            int maxHeight = context.getPlayer().getWorld().getMaxHeight();
-            int minHeight = context.getPlayer().getWorld().getMinHeight();
-            
-            // Use LightDataProcessor to create complete light data
-            dev.twme.blocket.processors.LightDataProcessor lightProcessor = new dev.twme.blocket.processors.LightDataProcessor();
-            return lightProcessor.createLightData(chunkSnapshot, ySections, minHeight, maxHeight);
-            
-        } catch (Exception e) {
-            // If light data extraction fails, fall back to empty light data to ensure backward compatibility
-            api.getOwnerPlugin().getLogger().warning("Failed to extract light data from column, falling back to empty light data: " + e.getMessage());
-            return createEmptyLightData(context);
-        }
-    }
-
     /**
      * Creates empty light data to let the client handle lighting.
      *
@@ -782,6 +847,8 @@ public class BlockChangeManager {
 
     /**
      * Sends chunk packets to the user.
+     * The unload and the chunk data are written as one bundle, so the client replaces the chunk
+     * without showing it unloaded, and consecutive replacements share a bundle.
      *
      * @param packetUser The packet user
      * @param chunk The chunk
@@ -789,9 +856,8 @@ public class BlockChangeManager {
      */
     private void sendChunkPackets(User packetUser, BlocketChunk chunk, ChunkPacketData packetData) {
         WrapperPlayServerUnloadChunk unloadPacket = new WrapperPlayServerUnloadChunk(chunk.x(), chunk.z());
-        packetUser.sendPacketSilently(unloadPacket);
         WrapperPlayServerChunkData chunkDataPacket = new WrapperPlayServerChunkData(packetData.getColumn(), packetData.getLightData());
-        packetUser.sendPacketSilently(chunkDataPacket);
+        packetBatcher.queue(packetUser, true, unloadPacket, chunkDataPacket);
     }
 
     /**
@@ -836,7 +902,7 @@ public class BlockChangeManager {
      * @return The performance report string
      */
     public String getPerformanceReport() {
-        return performanceMonitor.generateReport();
+        return performanceMonitor.generateReport() + "\n" + executorService.generateReport() + "\n" + chunkWorkQueue.generateReport();
     }
 
     /**
@@ -846,13 +912,25 @@ public class BlockChangeManager {
         performanceMonitor.resetAll();
     }
 
+    /**
+     * Gets the shared base section cache used by chunk builds.
+     *
+     * @return The base section cache, or null if it is disabled
+     */
+    public BaseChunkCache getBaseChunkCache() {
+        return chunkProcessorFactory.getBaseChunkCache();
+    }
+
     /**
      * Shuts down and cleans up all resources.
      */
     public void shutdown() {
-        blockChangeTasks.values().forEach(BukkitTask::cancel);
-        blockChangeTasks.clear();
+        sendPlanner.shutdown();
+        chunkSendScheduler.shutdown();
+        chunkWorkQueue.clear();
+        packetBatcher.clear();
 
+        snapshotBroker.shutdown();
         executorService.shutdown();
         try {
             if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
@@ -866,19 +944,19 @@ public class BlockChangeManager {
             Thread.currentThread().interrupt();
         }
 
-        playerBlockChanges.clear();
-        playerViewBlocks.clear();
-        blockDataToId.clear();
+        playerOverlays.clear();
+        clientChunkTracker.clear();
 
+        if (chunkPacketCache != null) {
+            chunkPacketCache.clear();
+        }
         if (chunkProcessorFactory != null) {
             chunkProcessorFactory.clearCaches();
+            chunkProcessorFactory.shutdown();
         }
-        blockDataMapPool.clear();
-        chunkListPool.clear();
-        lightDataArrayPool.clear();
 
         if (api.getOwnerPlugin().getLogger() != null) {
-            api.getOwnerPlugin().getLogger().info("BlockChangeManager Performance Stats:\n" + performanceMonitor.generateReport());
+            api.getOwnerPlugin().getLogger().info("BlockChangeManager Performance Stats:\n" + getPerformanceReport());
         }
     }
 }
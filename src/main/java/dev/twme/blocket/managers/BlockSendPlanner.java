@@ -0,0 +1,382 @@
+package dev.twme.blocket.managers;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.github.retrooper.packetevents.util.Vector3i;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerMultiBlockChange;
+
+import dev.twme.blocket.constants.ChunkConstants;
+import dev.twme.blocket.models.PlayerOverlay;
+import dev.twme.blocket.models.Stage;
+import dev.twme.blocket.models.ViewSection;
+import dev.twme.blocket.models.VisibleBlock;
+import dev.twme.blocket.processors.ChunkPacketCache;
+import dev.twme.blocket.types.BlocketChunk;
+import dev.twme.blocket.types.BlocketPosition;
+import dev.twme.blocket.utils.BlockStateRegistry;
+import dev.twme.blocket.utils.LongObjectMap;
+
+/**
+ * Collects the overlay changes of each player during a tick and sends them once per tick.
+ * Instead of resending every chunk of a stage for every change, the planner keeps per-player
+ * dirty sets of chunks and positions. Positions are reported by the overlays as exact diffs, one
+ * block for single-block edits and one section at a time when a view is shown, hidden or reordered.
+ * At the next tick the planner compares what the player saw before the first change with what the
+ * player sees now, so changes undone within the tick are not sent. Dirty positions are kept per
+ * section by local index, without a position object per block.
+ *
+ * <p>Per player and tick, the planner:
+ * <ul>
+ *   <li>Merges all dirty chunks of a stage into one request to the chunk send scheduler,
+ *       which keeps the progress of chunks already queued</li>
+ *   <li>Drops dirty positions of chunks that are fully resent anyway</li>
+ *   <li>Groups the remaining changed blocks by 16x16x16 section</li>
+ *   <li>Queues each section as a multi-block change in the packet batcher while it stays at or below the threshold</li>
+ *   <li>Queues a full resend of the chunk in the chunk send scheduler once any of its sections
+ *       changes more blocks than the threshold</li>
+ *   <li>Skips the chunk if the client has not loaded it; it is built with the new overlay on load</li>
+ * </ul>
+ *
+ * <p>Blocks that no layer covers any more are reverted to the real world block.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class BlockSendPlanner {
+    private final Plugin plugin;
+    private final BlockChangeManager blockChangeManager;
+    private final int sectionThreshold;
+    private Map<UUID, PendingChanges> pending = new HashMap<>();
+    private BukkitTask flushTask;
+
+    /**
+     * Creates a new send planner.
+     *
+     * @param plugin The plugin used to schedule the per-tick flush
+     * @param blockChangeManager The manager used for full chunk resends
+     * @param sectionThreshold The maximum changed blocks per section sent as a multi-block change
+     */
+    public BlockSendPlanner(Plugin plugin, BlockChangeManager blockChangeManager, int sectionThreshold) {
+        this.plugin = plugin;
+        this.blockChangeManager = blockChangeManager;
+        this.sectionThreshold = sectionThreshold;
+    }
+
+    /**
+     * Starts the per-tick flush task.
+     */
+    public synchronized void start() {
+        if (flushTask == null) {
+            flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, 1L, 1L);
+        }
+    }
+
+    /**
+     * Marks a block as dirty for a player after the block the player sees there changed.
+     * Only the first change of a position per tick is kept, so the flush compares against
+     * what the client was last sent.
+     *
+     * @param player The player
+     * @param overlay The player's overlay
+     * @param world The world of the block
+     * @param position The position of the block
+     * @param previous The block the player saw before the change, or null for the real block
+     */
+    public synchronized void markVisibleChange(Player player, PlayerOverlay overlay, World world, BlocketPosition position, BlockData previous) {
+        changes(player, overlay).chunk(world, position.toBlocketChunk()).section(position.getY() >> 4).mark(
+                ViewSection.index(position.getX() & 15, position.getY() & 15, position.getZ() & 15), previous);
+    }
+
+    /**
+     * Marks blocks of one section as dirty for a player after the blocks the player sees there changed.
+     * Only the first change of a position per tick is kept.
+     *
+     * @param player The player
+     * @param overlay The player's overlay
+     * @param world The world of the section
+     * @param chunk The chunk of the section
+     * @param sectionY The section Y coordinate
+     * @param indexes The local indexes of the changed blocks
+     * @param previous The blocks the player saw before the change, parallel to the indexes; null means the real block
+     */
+    public synchronized void markVisibleSection(Player player, PlayerOverlay overlay, World world, BlocketChunk chunk,
+                                                int sectionY, int[] indexes, BlockData[] previous) {
+        SectionChanges section = changes(player, overlay).chunk(world, chunk).section(sectionY);
+        for (int i = 0; i < indexes.length; i++) {
+            section.mark(indexes[i], previous[i]);
+        }
+    }
+
+    /**
+     * Marks chunks of a stage as dirty for a player.
+     * The chunks are handed to the chunk send scheduler at the next flush.
+     *
+     * @param player The player
+     * @param stage The stage the chunks belong to
+     * @param chunks The chunks to resend
+     * @param unload Whether the chunks are unloaded before they are sent
+     */
+    public synchronized void markChunks(Player player, Stage stage, Iterable<BlocketChunk> chunks, boolean unload) {
+        Map<BlocketChunk, Boolean> stageChunks = changes(player, null).resends.computeIfAbsent(stage, key -> new HashMap<>());
+        for (BlocketChunk chunk : chunks) {
+            stageChunks.merge(chunk, unload, Boolean::logicalOr);
+        }
+    }
+
+    /**
+     * Drops all pending changes of a player.
+     *
+     * @param playerId The player UUID
+     */
+    public synchronized void cancel(UUID playerId) {
+        pending.remove(playerId);
+    }
+
+    /**
+     * Drops the pending chunk resends of a stage.
+     *
+     * @param stage The stage
+     */
+    public synchronized void cancel(Stage stage) {
+        pending.values().forEach(changes -> changes.resends.remove(stage));
+    }
+
+    /**
+     * Gets the number of players with changes waiting for the next flush.
+     *
+     * @return The number of dirty players
+     */
+    public synchronized int getPendingPlayers() {
+        return pending.size();
+    }
+
+    private PendingChanges changes(Player player, PlayerOverlay overlay) {
+        PendingChanges changes = pending.computeIfAbsent(player.getUniqueId(), id -> new PendingChanges(player));
+        if (overlay != null) {
+            changes.overlay = overlay;
+        }
+        return changes;
+    }
+
+    /**
+     * Sends everything marked dirty since the last flush.
+     * Runs on the main thread, since reverted blocks are read from the world.
+     */
+    private void flush() {
+        Map<UUID, PendingChanges> flushed;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            flushed = pending;
+            pending = new HashMap<>();
+        }
+
+        for (PendingChanges changes : flushed.values()) {
+            try {
+                flush(changes);
+            } catch (Exception e) {
+                plugin.getLogger().warning(String.format("Error sending block changes to player %s: %s",
+                        changes.player.getName(), e.getMessage()));
+            }
+        }
+    }
+
+    private void flush(PendingChanges changes) {
+        Player player = changes.player;
+        if (!player.isOnline()) {
+            return;
+        }
+
+        Set<BlocketChunk> resent = new HashSet<>();
+        ChunkSendScheduler scheduler = blockChangeManager.getChunkSendScheduler();
+        for (Map.Entry<Stage, Map<BlocketChunk, Boolean>> entry : changes.resends.entrySet()) {
+            Stage stage = entry.getKey();
+            if (!player.getWorld().equals(stage.getWorld())) {
+                continue;
+            }
+            List<BlocketChunk> reload = new ArrayList<>();
+            List<BlocketChunk> unload = new ArrayList<>();
+            entry.getValue().forEach((chunk, unloadChunk) -> (unloadChunk ? unload : reload).add(chunk));
+            scheduler.enqueue(player, stage, reload, false);
+            scheduler.enqueue(player, stage, unload, true);
+            resent.addAll(entry.getValue().keySet());
+        }
+
+        if (changes.overlay == null) {
+            return;
+        }
+        ClientChunkTracker tracker = blockChangeManager.getClientChunkTracker();
+        for (Map.Entry<WorldChunk, ChunkChanges> entry : changes.chunks.entrySet()) {
+            BlocketChunk chunk = entry.getKey().chunk();
+            World world = entry.getValue().world;
+            if (!player.getWorld().equals(world) || resent.contains(chunk)) {
+                // A full resend composes the latest overlay anyway
+                continue;
+            }
+            if (!world.isChunkLoaded(chunk.x(), chunk.z()) || !tracker.isLoaded(player, chunk)) {
+                // The client does not have the chunk; it will be built with the new overlay on load
+                continue;
+            }
+
+            Map<Integer, Map<BlocketPosition, BlockData>> sections = entry.getValue().diff(changes.overlay);
+            if (sections.isEmpty()) {
+                continue;
+            }
+            if (isDense(sections)) {
+                Stage stage = findStage(player, world, chunk);
+                if (stage != null) {
+                    // Spread over ticks with the other full resends instead of building the chunk right away
+                    scheduler.enqueue(player, stage, List.of(chunk), false);
+                    continue;
+                }
+            }
+
+            // Queued behind the chunk packets already waiting in the batcher, so a chunk never overwrites them
+            List<WrapperPlayServerMultiBlockChange> packets = new ArrayList<>(sections.size());
+            sections.forEach((sectionY, section) -> {
+                WrapperPlayServerMultiBlockChange.EncodedBlock[] blocks = new WrapperPlayServerMultiBlockChange.EncodedBlock[section.size()];
+                int[] count = new int[1];
+                section.forEach((position, blockData) -> blocks[count[0]++] = new WrapperPlayServerMultiBlockChange.EncodedBlock(
+                        BlockStateRegistry.getStateId(blockData != null ? blockData
+                                : world.getBlockData(position.getX(), position.getY(), position.getZ())),
+                        position.getX(), position.getY(), position.getZ()));
+                packets.add(new WrapperPlayServerMultiBlockChange(new Vector3i(chunk.x(), sectionY, chunk.z()), true, blocks));
+            });
+            blockChangeManager.getPacketBatcher().queue(player, packets.toArray(new WrapperPlayServerMultiBlockChange[0]));
+            tracker.onChunkUpdated(player.getUniqueId(), chunk,
+                    ChunkPacketCache.fingerprint(changes.overlay.composeSections(chunk), BlockStateRegistry::getStateId));
+        }
+    }
+
+    private Stage findStage(Player player, World world, BlocketChunk chunk) {
+        for (Stage stage : blockChangeManager.getApi().getStageManager().getStages(world, chunk.x(), chunk.z())) {
+            if (stage.getAudience().getPlayers().contains(player.getUniqueId())) {
+                return stage;
+            }
+        }
+        return null;
+    }
+
+    private boolean isDense(Map<Integer, Map<BlocketPosition, BlockData>> sections) {
+        for (Map<BlocketPosition, BlockData> section : sections.values()) {
+            if (section.size() > sectionThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops the flush task and drops all pending changes.
+     */
+    public synchronized void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        pending.clear();
+    }
+
+    /**
+     * Changes of one player waiting for the next flush.
+     */
+    private static final class PendingChanges {
+        private final Player player;
+        private PlayerOverlay overlay;
+        // Stage -> chunk -> unload flag of full resends
+        private final Map<Stage, Map<BlocketChunk, Boolean>> resends = new HashMap<>();
+        private final Map<WorldChunk, ChunkChanges> chunks = new HashMap<>();
+
+        private PendingChanges(Player player) {
+            this.player = player;
+        }
+
+        private ChunkChanges chunk(World world, BlocketChunk chunk) {
+            return chunks.computeIfAbsent(new WorldChunk(world.getUID(), chunk), key -> new ChunkChanges(world, chunk));
+        }
+    }
+
+    /**
+     * A chunk of a specific world.
+     */
+    private record WorldChunk(UUID worldId, BlocketChunk chunk) {
+    }
+
+    /**
+     * Dirty positions of one chunk.
+     */
+    private static final class ChunkChanges {
+        private final World world;
+        private final BlocketChunk chunk;
+        // Section Y -> dirty positions of the section
+        private final Map<Integer, SectionChanges> sections = new HashMap<>();
+
+        private ChunkChanges(World world, BlocketChunk chunk) {
+            this.world = world;
+            this.chunk = chunk;
+        }
+
+        private SectionChanges section(int sectionY) {
+            return sections.computeIfAbsent(sectionY, y -> new SectionChanges());
+        }
+
+        /**
+         * Groups the blocks that differ from what the player saw by section Y.
+         * A null value means the real block is visible again.
+         */
+        private Map<Integer, Map<BlocketPosition, BlockData>> diff(PlayerOverlay overlay) {
+            Map<Integer, Map<BlocketPosition, BlockData>> changed = new HashMap<>();
+            int baseX = chunk.x() << 4;
+            int baseZ = chunk.z() << 4;
+            sections.forEach((sectionY, section) -> {
+                int baseY = sectionY << 4;
+                for (int index = section.dirty.nextSetBit(0); index >= 0; index = section.dirty.nextSetBit(index + 1)) {
+                    int x = baseX + (index & 15);
+                    int y = baseY + (index >> 8);
+                    int z = baseZ + ((index >> 4) & 15);
+                    VisibleBlock visible = overlay.getVisibleBlock(world, x, y, z);
+                    BlockData now = visible != null ? visible.blockData() : null;
+                    if (!Objects.equals(section.before.get(index), now)) {
+                        changed.computeIfAbsent(sectionY, key -> new HashMap<>()).put(new BlocketPosition(x, y, z), now);
+                    }
+                }
+            });
+            return changed;
+        }
+    }
+
+    /**
+     * Dirty positions of one section, by local index.
+     */
+    private static final class SectionChanges {
+        private final BitSet dirty = new BitSet(ChunkConstants.SECTION_VOLUME);
+        // Local index -> block the player saw before the first change of the tick; absent means the real block
+        private final LongObjectMap<BlockData> before = new LongObjectMap<>();
+
+        private void mark(int index, BlockData previous) {
+            if (!dirty.get(index)) {
+                dirty.set(index);
+                if (previous != null) {
+                    before.put(index, previous);
+                }
+            }
+        }
+    }
+}
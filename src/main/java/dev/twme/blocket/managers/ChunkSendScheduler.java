@@ -0,0 +1,291 @@
+package dev.twme.blocket.managers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import dev.twme.blocket.models.Stage;
+import dev.twme.blocket.types.BlocketChunk;
+
+/**
+ * Global scheduler for chunk sends.
+ * All chunk resends go through one queue per player and stage, and a single per-tick task
+ * hands out a fixed budget of chunks across those queues, so the work per tick stays flat
+ * no matter how many players are waiting for chunks.
+ *
+ * <p>Scheduling rules:
+ * <ul>
+ *   <li>The budget is shared with deficit round robin; each queue earns its stage's chunks-per-tick as weight per round</li>
+ *   <li>The queue that is served first rotates every tick, so no player is starved by earlier ones</li>
+ *   <li>Queuing a chunk that is already waiting only updates its unload flag</li>
+ *   <li>Each queue sends the chunk nearest to its player first, spiralling outward ring by ring,
+ *       and is re-ordered whenever the player enters another chunk</li>
+ *   <li>Chunks the client has not loaded are dropped; they are built with the current overlay when they load</li>
+ *   <li>Sending pauses while the chunk work queue is full, so chunks wait here rather than piling up in the executor</li>
+ *   <li>Players whose connection is backlogged are skipped until their packets are written</li>
+ * </ul>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class ChunkSendScheduler {
+    private final Plugin plugin;
+    private final BlockChangeManager blockChangeManager;
+    private final int budgetPerTick;
+    private final Map<QueueKey, SendQueue> queues = new LinkedHashMap<>();
+    private int rotation;
+    private int queuedChunks;
+    private BukkitTask drainTask;
+
+    /**
+     * Creates a new chunk send scheduler.
+     *
+     * @param plugin The plugin used to schedule the per-tick task
+     * @param blockChangeManager The manager that builds and sends the chunks
+     * @param budgetPerTick The maximum number of chunks sent per tick across all players
+     */
+    public ChunkSendScheduler(Plugin plugin, BlockChangeManager blockChangeManager, int budgetPerTick) {
+        this.plugin = plugin;
+        this.blockChangeManager = blockChangeManager;
+        this.budgetPerTick = budgetPerTick;
+    }
+
+    /**
+     * Starts the per-tick send task.
+     */
+    public synchronized void start() {
+        if (drainTask == null) {
+            drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+        }
+    }
+
+    /**
+     * Queues chunks of a stage to be sent to a player.
+     *
+     * @param player The player to send the chunks to
+     * @param stage The stage the chunks belong to
+     * @param chunks The chunks to send; they are sent nearest to the player first
+     * @param unload Whether the chunks are unloaded before they are sent
+     */
+    public synchronized void enqueue(Player player, Stage stage, Iterable<BlocketChunk> chunks, boolean unload) {
+        SendQueue queue = queues.computeIfAbsent(new QueueKey(player.getUniqueId(), stage.getName()),
+                key -> new SendQueue(player, stage));
+        for (BlocketChunk chunk : chunks) {
+            if (queue.chunks.put(chunk, unload) == null) {
+                queuedChunks++;
+                queue.unordered = true;
+            }
+        }
+    }
+
+    /**
+     * Drops all chunks waiting for a player.
+     *
+     * @param playerId The player UUID
+     */
+    public synchronized void cancel(UUID playerId) {
+        Iterator<Map.Entry<QueueKey, SendQueue>> iterator = queues.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<QueueKey, SendQueue> entry = iterator.next();
+            if (entry.getKey().playerId().equals(playerId)) {
+                queuedChunks -= entry.getValue().chunks.size();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops all chunks waiting to be sent for a stage.
+     *
+     * @param stage The stage
+     */
+    public synchronized void cancel(Stage stage) {
+        Iterator<Map.Entry<QueueKey, SendQueue>> iterator = queues.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<QueueKey, SendQueue> entry = iterator.next();
+            if (entry.getValue().stage == stage) {
+                queuedChunks -= entry.getValue().chunks.size();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of chunks waiting to be sent to all players.
+     *
+     * @return The total queue depth
+     */
+    public synchronized int getQueueDepth() {
+        return queuedChunks;
+    }
+
+    /**
+     * Gets the number of chunks waiting to be sent to a player.
+     *
+     * @param playerId The player UUID
+     * @return The queue depth of the player
+     */
+    public synchronized int getQueueDepth(UUID playerId) {
+        int depth = 0;
+        for (Map.Entry<QueueKey, SendQueue> entry : queues.entrySet()) {
+            if (entry.getKey().playerId().equals(playerId)) {
+                depth += entry.getValue().chunks.size();
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Hands out the tick budget across all queues.
+     * Runs on the main thread.
+     */
+    private synchronized void drain() {
+        if (queues.isEmpty()) {
+            return;
+        }
+
+        ChunkWorkQueue workQueue = blockChangeManager.getChunkWorkQueue();
+        PacketBatcher packetBatcher = blockChangeManager.getPacketBatcher();
+        List<SendQueue> active = new ArrayList<>(queues.values());
+        int start = Math.floorMod(rotation++, active.size());
+        int budget = budgetPerTick;
+        boolean progress = true;
+        while (budget > 0 && progress && workQueue.hasCapacity()) {
+            progress = false;
+            for (int i = 0; i < active.size() && budget > 0 && workQueue.hasCapacity(); i++) {
+                SendQueue queue = active.get((start + i) % active.size());
+                if (queue.chunks.isEmpty() || packetBatcher.isBacklogged(queue.player.getUniqueId())) {
+                    continue;
+                }
+                queue.deficit += Math.max(1, queue.stage.getChunksPerTick());
+                while (queue.deficit >= 1 && budget > 0 && !queue.chunks.isEmpty()) {
+                    if (sendNext(queue)) {
+                        budget--;
+                    }
+                    queue.deficit--;
+                    progress = true;
+                }
+            }
+        }
+
+        queues.values().removeIf(queue -> {
+            if (queue.chunks.isEmpty()) {
+                return true;
+            }
+            // Unspent credit is not carried over, so an idle queue cannot burst later
+            queue.deficit = Math.min(queue.deficit, Math.max(1, queue.stage.getChunksPerTick()));
+            return false;
+        });
+    }
+
+    /**
+     * Sends the next chunk of a queue.
+     *
+     * @return true if a chunk was sent, false if it was dropped or deferred to the client's chunk load
+     */
+    private boolean sendNext(SendQueue queue) {
+        Player player = queue.player;
+        if (!player.isOnline() || !player.getWorld().equals(queue.stage.getWorld())) {
+            queuedChunks -= queue.chunks.size();
+            queue.chunks.clear();
+            queue.order.clear();
+            return false;
+        }
+
+        int centerX = player.getLocation().getBlockX() >> 4;
+        int centerZ = player.getLocation().getBlockZ() >> 4;
+        if (queue.unordered || centerX != queue.centerX || centerZ != queue.centerZ) {
+            queue.reorder(centerX, centerZ);
+        }
+
+        BlocketChunk chunk;
+        Boolean unload;
+        do {
+            chunk = queue.order.poll();
+            unload = chunk != null ? queue.chunks.remove(chunk) : null;
+        } while (chunk != null && unload == null);
+        if (chunk == null) {
+            return false;
+        }
+        queuedChunks--;
+        if (!blockChangeManager.getClientChunkTracker().isLoaded(player, chunk)) {
+            return false;
+        }
+        if (!blockChangeManager.sendChunkPacket(player, chunk, unload)) {
+            // The work queue filled up; keep the chunk for a later tick
+            queue.chunks.put(chunk, unload);
+            queue.order.addFirst(chunk);
+            queuedChunks++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops the send task and drops all queued chunks.
+     */
+    public synchronized void shutdown() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+        queues.clear();
+        queuedChunks = 0;
+    }
+
+    /**
+     * Identifies the queue of a player and stage.
+     *
+     * @param playerId The player UUID
+     * @param stageName The stage name
+     */
+    private record QueueKey(UUID playerId, String stageName) {
+    }
+
+    /**
+     * Chunks waiting to be sent to one player for one stage.
+     */
+    private static final class SendQueue {
+        private final Player player;
+        private final Stage stage;
+        // Waiting chunks and their unload flag
+        private final Map<BlocketChunk, Boolean> chunks = new HashMap<>();
+        // Send order around the center chunk; may still hold chunks that were already sent
+        private final ArrayDeque<BlocketChunk> order = new ArrayDeque<>();
+        private boolean unordered;
+        private int centerX;
+        private int centerZ;
+        private int deficit;
+
+        private SendQueue(Player player, Stage stage) {
+            this.player = player;
+            this.stage = stage;
+        }
+
+        /**
+         * Orders the waiting chunks by ring around the center chunk, and by angle within a ring.
+         */
+        private void reorder(int centerX, int centerZ) {
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.unordered = false;
+            List<BlocketChunk> sorted = new ArrayList<>(chunks.keySet());
+            sorted.sort(Comparator.<BlocketChunk>comparingInt(chunk -> Math.max(Math.abs(chunk.x() - centerX), Math.abs(chunk.z() - centerZ)))
+                    .thenComparingDouble(chunk -> Math.atan2(chunk.z() - centerZ, chunk.x() - centerX)));
+            order.clear();
+            order.addAll(sorted);
+        }
+    }
+}
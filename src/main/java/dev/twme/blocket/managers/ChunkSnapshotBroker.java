@@ -0,0 +1,174 @@
+package dev.twme.blocket.managers;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Main-thread broker for chunk snapshots.
+ * Worker threads never touch the world directly; they request snapshots from this broker
+ * and receive them as futures that are completed on the main thread.
+ *
+ * <p>The broker:
+ * <ul>
+ *   <li>Collects snapshot requests from any thread and deduplicates them per chunk</li>
+ *   <li>Fulfils queued requests once per tick, within a configurable time budget</li>
+ *   <li>Loads missing chunks asynchronously instead of blocking on a synchronous load</li>
+ *   <li>Fails outstanding requests on shutdown so that no caller waits forever</li>
+ * </ul>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class ChunkSnapshotBroker {
+    private final Plugin plugin;
+    private final long budgetNanos;
+    private final Queue<SnapshotKey> requestQueue = new ConcurrentLinkedQueue<>();
+    private final Map<SnapshotKey, CompletableFuture<ChunkSnapshot>> pendingRequests = new ConcurrentHashMap<>();
+    private BukkitTask drainTask;
+
+    /**
+     * Creates a new snapshot broker.
+     *
+     * @param plugin The plugin used to schedule the per-tick drain task
+     * @param budgetMillis The maximum main-thread time spent taking snapshots per tick
+     */
+    public ChunkSnapshotBroker(Plugin plugin, long budgetMillis) {
+        this.plugin = plugin;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /**
+     * Starts the per-tick drain task.
+     */
+    public void start() {
+        if (drainTask == null) {
+            drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+        }
+    }
+
+    /**
+     * Requests a snapshot of a chunk.
+     * Requests for a chunk that is already queued share the same future.
+     * When called on the main thread for a loaded chunk, the snapshot is taken immediately.
+     *
+     * @param world The world containing the chunk
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return A future completed with the snapshot on the main thread
+     */
+    public CompletableFuture<ChunkSnapshot> request(World world, int chunkX, int chunkZ) {
+        if (Bukkit.isPrimaryThread() && world.isChunkLoaded(chunkX, chunkZ)) {
+            return CompletableFuture.completedFuture(world.getChunkAt(chunkX, chunkZ).getChunkSnapshot());
+        }
+
+        SnapshotKey key = new SnapshotKey(world.getUID(), chunkX, chunkZ);
+        return pendingRequests.computeIfAbsent(key, k -> {
+            requestQueue.add(k);
+            return new CompletableFuture<>();
+        });
+    }
+
+    /**
+     * Gets the number of snapshot requests that have not been fulfilled yet.
+     *
+     * @return The number of pending snapshot requests
+     */
+    public int getPendingCount() {
+        return pendingRequests.size();
+    }
+
+    /**
+     * Fulfils queued requests until the queue is empty or the tick budget is spent.
+     * Runs on the main thread.
+     */
+    private void drain() {
+        long deadline = System.nanoTime() + budgetNanos;
+        SnapshotKey key;
+        while (System.nanoTime() < deadline && (key = requestQueue.poll()) != null) {
+            fulfil(key);
+        }
+    }
+
+    /**
+     * Fulfils a single request, loading the chunk asynchronously if needed.
+     *
+     * @param key The request to fulfil
+     */
+    private void fulfil(SnapshotKey key) {
+        World world = Bukkit.getWorld(key.worldId());
+        if (world == null) {
+            fail(key, new IllegalStateException("World " + key.worldId() + " is no longer loaded"));
+            return;
+        }
+
+        if (world.isChunkLoaded(key.x(), key.z())) {
+            complete(key, world.getChunkAt(key.x(), key.z()));
+            return;
+        }
+
+        // Paper completes async chunk loads on the main thread
+        world.getChunkAtAsync(key.x(), key.z()).whenComplete((chunk, throwable) -> {
+            if (throwable != null || chunk == null) {
+                fail(key, throwable != null ? throwable : new IllegalStateException("Chunk could not be loaded"));
+            } else {
+                complete(key, chunk);
+            }
+        });
+    }
+
+    private void complete(SnapshotKey key, Chunk chunk) {
+        CompletableFuture<ChunkSnapshot> future = pendingRequests.remove(key);
+        if (future == null) {
+            return;
+        }
+        try {
+            future.complete(chunk.getChunkSnapshot());
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void fail(SnapshotKey key, Throwable throwable) {
+        CompletableFuture<ChunkSnapshot> future = pendingRequests.remove(key);
+        if (future != null) {
+            future.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * Stops the drain task and fails all outstanding requests.
+     */
+    public void shutdown() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+        requestQueue.clear();
+        IllegalStateException shutdown = new IllegalStateException("Chunk snapshot broker is shutting down");
+        pendingRequests.values().forEach(future -> future.completeExceptionally(shutdown));
+        pendingRequests.clear();
+    }
+
+    /**
+     * Identifies a requested chunk snapshot.
+     *
+     * @param worldId The world UUID
+     * @param x The chunk X coordinate
+     * @param z The chunk Z coordinate
+     */
+    private record SnapshotKey(UUID worldId, int x, int z) {
+    }
+}
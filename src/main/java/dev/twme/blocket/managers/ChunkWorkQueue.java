@@ -0,0 +1,226 @@
+package dev.twme.blocket.managers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.entity.Player;
+
+import dev.twme.blocket.types.BlocketChunk;
+
+/**
+ * Bounded work queue for chunk builds, keyed by player and chunk.
+ * Work waits here instead of in the executor, so it can be merged and dropped before it runs,
+ * and the executor only ever holds as many tasks as there are drainers.
+ * A drainer keeps its slot until the chunk it started is built and sent, so the concurrency
+ * bounds the builds in progress and not only the work handed to the executor.
+ *
+ * <p>Queue rules:
+ * <ul>
+ *   <li>A request for a chunk that is already waiting for the same player is merged into it</li>
+ *   <li>Work of a player that disconnected or changed world is dropped when it is reached</li>
+ *   <li>Cancelling a player removes all of its waiting work at once</li>
+ *   <li>Once the capacity is reached new work is refused, so callers can hold it back</li>
+ * </ul>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class ChunkWorkQueue {
+    private final Executor executor;
+    private final ChunkTask task;
+    private final int capacity;
+    private final int concurrency;
+    // Waiting work in submission order
+    private final LinkedHashMap<WorkKey, WorkItem> pending = new LinkedHashMap<>();
+    private int drainers;
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong refused = new AtomicLong();
+
+    /**
+     * Creates a new chunk work queue.
+     *
+     * @param executor The executor running the drainers
+     * @param task The work run for each chunk
+     * @param capacity The maximum number of waiting chunks
+     * @param concurrency The maximum number of chunks processed at the same time
+     */
+    public ChunkWorkQueue(Executor executor, ChunkTask task, int capacity, int concurrency) {
+        this.executor = executor;
+        this.task = task;
+        this.capacity = capacity;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Queues a chunk build for a player.
+     *
+     * @param player The player
+     * @param chunk The chunk
+     * @param unload Whether the chunk is sent as an unload
+     * @return true if the work was queued or merged, false if the queue is full
+     */
+    public boolean submit(Player player, BlocketChunk chunk, boolean unload) {
+        WorkKey key = new WorkKey(player.getUniqueId(), chunk.x(), chunk.z());
+        synchronized (this) {
+            WorkItem waiting = pending.get(key);
+            if (waiting != null) {
+                // The newer request wins; the chunk is built from the latest overlay when it runs anyway
+                pending.put(key, new WorkItem(player, chunk, unload, player.getWorld().getUID()));
+                merged.incrementAndGet();
+                return true;
+            }
+            if (pending.size() >= capacity) {
+                refused.incrementAndGet();
+                return false;
+            }
+            pending.put(key, new WorkItem(player, chunk, unload, player.getWorld().getUID()));
+            if (drainers >= concurrency) {
+                return true;
+            }
+            drainers++;
+        }
+
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                drainers--;
+                pending.remove(key);
+            }
+            refused.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether new work would be accepted.
+     *
+     * @return true if the queue is below its capacity
+     */
+    public synchronized boolean hasCapacity() {
+        return pending.size() < capacity;
+    }
+
+    /**
+     * Drops all waiting work of a player.
+     *
+     * @param playerId The player UUID
+     */
+    public synchronized void cancel(UUID playerId) {
+        Iterator<WorkKey> iterator = pending.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().playerId().equals(playerId)) {
+                iterator.remove();
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Drops all waiting work.
+     */
+    public synchronized void clear() {
+        dropped.addAndGet(pending.size());
+        pending.clear();
+    }
+
+    /**
+     * Gets the number of chunks waiting to be processed.
+     *
+     * @return The queue depth
+     */
+    public synchronized int getDepth() {
+        return pending.size();
+    }
+
+    /**
+     * Generates a one-line report of the queue metrics.
+     *
+     * @return The metrics report
+     */
+    public String generateReport() {
+        return String.format("Chunk work queue: depth=%d, merged=%d, dropped=%d, refused=%d",
+                getDepth(), merged.get(), dropped.get(), refused.get());
+    }
+
+    /**
+     * Processes waiting work until the queue is empty.
+     * When a chunk is still being built after its task returns, the drainer gives its thread back
+     * and continues on the executor once the build completes, keeping its slot in the meantime.
+     */
+    private void drain() {
+        while (true) {
+            WorkItem item;
+            synchronized (this) {
+                Iterator<WorkItem> iterator = pending.values().iterator();
+                if (!iterator.hasNext()) {
+                    drainers--;
+                    return;
+                }
+                item = iterator.next();
+                iterator.remove();
+            }
+
+            Player player = item.player();
+            if (!player.isOnline() || !player.getWorld().getUID().equals(item.worldId())) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            CompletableFuture<?> build = task.run(player, item.chunk(), item.unload());
+            if (build != null && !build.isDone()) {
+                build.whenComplete((result, throwable) -> resume());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Continues draining on the executor after a build completed.
+     * If the executor refuses, the slot is released and the waiting work is drained by the next submit.
+     */
+    private void resume() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                drainers--;
+            }
+        }
+    }
+
+    /**
+     * Work run for a chunk.
+     */
+    @FunctionalInterface
+    public interface ChunkTask {
+        /**
+         * Builds and sends a chunk.
+         *
+         * @param player The player
+         * @param chunk The chunk
+         * @param unload Whether the chunk is sent as an unload
+         * @return Future completed once the chunk is sent or has failed, or null if the work is already done
+         */
+        CompletableFuture<?> run(Player player, BlocketChunk chunk, boolean unload);
+    }
+
+    /**
+     * Identifies the work of a player and chunk.
+     */
+    private record WorkKey(UUID playerId, int x, int z) {
+    }
+
+    /**
+     * Waiting work of a player and chunk.
+     */
+    private record WorkItem(Player player, BlocketChunk chunk, boolean unload, UUID worldId) {
+    }
+}
@@ -0,0 +1,212 @@
+package dev.twme.blocket.managers;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.entity.Player;
+
+import dev.twme.blocket.processors.ChunkPacketCache.OverlayFingerprint;
+import dev.twme.blocket.types.BlocketChunk;
+import dev.twme.blocket.utils.LongObjectMap;
+
+/**
+ * Tracks which chunks each client has loaded and which overlay version it last received for them.
+ * The tracker is fed by the chunk packets that leave the server and by Blocket's own chunk sends,
+ * so resends can skip chunks the client does not have and chunks that are already up to date.
+ *
+ * <p>Tracking rules:
+ * <ul>
+ *   <li>Joining resets a player's chunks, since the client drops all of them</li>
+ *   <li>Respawning into another world resets a player's chunks; respawning in the same world keeps them
+ *       but forgets their versions, so they are resent when asked</li>
+ *   <li>Every chunk packet marks its chunk as loaded; unload packets forget it</li>
+ *   <li>The overlay version of a chunk is the fingerprint of the virtual blocks it was sent with</li>
+ *   <li>Players whose join was not observed fall back to a view distance check</li>
+ * </ul>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class ClientChunkTracker {
+    // Version of a chunk the client has loaded without a known overlay
+    private static final OverlayFingerprint UNKNOWN_VERSION = new OverlayFingerprint(0, 0, -1);
+
+    private final Map<UUID, ClientChunks> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Starts tracking a client from an empty state.
+     * Called when the client joins and therefore holds no chunks.
+     *
+     * @param playerId The player UUID
+     * @param worldName The name of the world the client joins, or null if it is not known
+     */
+    public void reset(UUID playerId, String worldName) {
+        clients.put(playerId, new ClientChunks(worldName));
+    }
+
+    /**
+     * Updates a client for a respawn.
+     * A respawn into another world drops every chunk on the client, and chunk keys carry no world,
+     * so the client is reset. Within the same world the loaded chunks are kept but their overlay
+     * versions are forgotten, since the client may rebuild its level from the following packets.
+     *
+     * @param playerId The player UUID
+     * @param worldName The name of the world the client respawns in, or null if it is not known
+     */
+    public void onRespawn(UUID playerId, String worldName) {
+        ClientChunks client = clients.get(playerId);
+        if (client == null) {
+            return;
+        }
+        if (worldName == null || !worldName.equals(client.worldName)) {
+            reset(playerId, worldName);
+            return;
+        }
+        synchronized (client) {
+            client.versions.replaceAll((chunkKey, version) -> UNKNOWN_VERSION);
+        }
+    }
+
+    /**
+     * Records that a chunk was sent to a client.
+     *
+     * @param playerId The player UUID
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @param version The overlay fingerprint the chunk was sent with, or null if it is not known
+     */
+    public void onChunkSent(UUID playerId, int chunkX, int chunkZ, OverlayFingerprint version) {
+        ClientChunks client = clients.get(playerId);
+        if (client != null) {
+            synchronized (client) {
+                client.versions.put(chunkKey(chunkX, chunkZ), version != null ? version : UNKNOWN_VERSION);
+            }
+        }
+    }
+
+    /**
+     * Records a new overlay version for a chunk the client already has.
+     * Chunks the client does not have are left untouched.
+     *
+     * @param playerId The player UUID
+     * @param chunk The chunk
+     * @param version The overlay fingerprint the client now sees
+     */
+    public void onChunkUpdated(UUID playerId, BlocketChunk chunk, OverlayFingerprint version) {
+        ClientChunks client = clients.get(playerId);
+        if (client != null) {
+            synchronized (client) {
+                long key = chunkKey(chunk.x(), chunk.z());
+                if (client.versions.containsKey(key)) {
+                    client.versions.put(key, version);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that a client unloaded a chunk.
+     *
+     * @param playerId The player UUID
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     */
+    public void onChunkUnload(UUID playerId, int chunkX, int chunkZ) {
+        ClientChunks client = clients.get(playerId);
+        if (client != null) {
+            synchronized (client) {
+                client.versions.remove(chunkKey(chunkX, chunkZ));
+            }
+        }
+    }
+
+    /**
+     * Checks whether a client has a chunk loaded.
+     * Must be called on the main thread when the player's join was not observed.
+     *
+     * @param player The player
+     * @param chunk The chunk
+     * @return true if the client has the chunk, or is expected to have it
+     */
+    public boolean isLoaded(Player player, BlocketChunk chunk) {
+        ClientChunks client = clients.get(player.getUniqueId());
+        if (client != null) {
+            synchronized (client) {
+                return client.versions.containsKey(chunkKey(chunk.x(), chunk.z()));
+            }
+        }
+
+        int viewDistance = Math.min(player.getViewDistance(), player.getClientViewDistance());
+        int centerX = player.getLocation().getBlockX() >> 4;
+        int centerZ = player.getLocation().getBlockZ() >> 4;
+        return Math.max(Math.abs(chunk.x() - centerX), Math.abs(chunk.z() - centerZ)) <= viewDistance;
+    }
+
+    /**
+     * Checks whether a client already shows a chunk with the given overlay.
+     *
+     * @param playerId The player UUID
+     * @param chunk The chunk
+     * @param version The overlay fingerprint the chunk would be sent with
+     * @return true if the client has the chunk with exactly this overlay
+     */
+    public boolean isCurrent(UUID playerId, BlocketChunk chunk, OverlayFingerprint version) {
+        ClientChunks client = clients.get(playerId);
+        if (client == null) {
+            return false;
+        }
+        synchronized (client) {
+            return version.equals(client.versions.get(chunkKey(chunk.x(), chunk.z())));
+        }
+    }
+
+    /**
+     * Gets the number of chunks a client has loaded.
+     *
+     * @param playerId The player UUID
+     * @return The number of loaded chunks, or -1 if the client is not tracked
+     */
+    public int getLoadedCount(UUID playerId) {
+        ClientChunks client = clients.get(playerId);
+        if (client == null) {
+            return -1;
+        }
+        synchronized (client) {
+            return client.versions.size();
+        }
+    }
+
+    /**
+     * Stops tracking a client.
+     *
+     * @param playerId The player UUID
+     */
+    public void removePlayer(UUID playerId) {
+        clients.remove(playerId);
+    }
+
+    /**
+     * Stops tracking all clients.
+     */
+    public void clear() {
+        clients.clear();
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    /**
+     * Chunks loaded by one client, mapped to the overlay version they were sent with.
+     */
+    private static final class ClientChunks {
+        private final String worldName;
+        private final LongObjectMap<OverlayFingerprint> versions = new LongObjectMap<>(512);
+
+        private ClientChunks(String worldName) {
+            this.worldName = worldName;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package dev.twme.blocket.managers;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBundle;
+
+/**
+ * Output stage that batches Blocket's packets per player.
+ * Packets are queued per player and written on that player's channel event loop,
+ * with a single flush per batch instead of one flush per packet.
+ *
+ * <p>Batching rules:
+ * <ul>
+ *   <li>Packets of a player are written in the order they were queued</li>
+ *   <li>Packets queued together are never split across batches</li>
+ *   <li>Bundled groups are wrapped in bundle delimiters on 1.19.4+ clients, and consecutive
+ *       bundled groups of a batch share one bundle, so the client applies them in a single frame</li>
+ *   <li>Only one batch per player is scheduled on the event loop at a time</li>
+ *   <li>Writing stops while the channel is not writable and resumes a tick later,
+ *       so a slow client cannot grow the channel's outbound buffer without limit</li>
+ *   <li>Players with a large backlog are reported, so producers can hold back further work</li>
+ * </ul>
+ *
+ * <p>Packets are written silently, so they do not pass through packet listeners.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class PacketBatcher {
+    // Packets waiting for one player above which producers should hold back
+    private static final int BACKLOG_LIMIT = 128;
+    // Vanilla clients reject bundles with more packets than this
+    private static final int MAX_BUNDLE_PACKETS = 4096;
+    // Netty's Channel#isWritable, looked up per channel class since netty is not on the compile classpath
+    private static final ClassValue<Method> IS_WRITABLE = new ClassValue<>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            try {
+                return type.getMethod("isWritable");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    private final Plugin plugin;
+    private final Map<UUID, Outbox> outboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new packet batcher.
+     *
+     * @param plugin The plugin used to schedule retries of unwritable channels
+     */
+    public PacketBatcher(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Queues packets for a player.
+     *
+     * @param player The player
+     * @param packets The packets, written in the given order
+     */
+    public void queue(Player player, PacketWrapper<?>... packets) {
+        User user = PacketEvents.getAPI().getPlayerManager().getUser(player);
+        if (user != null) {
+            queue(user, false, packets);
+        }
+    }
+
+    /**
+     * Queues packets for a user.
+     *
+     * @param user The packet user
+     * @param bundled Whether the client must apply the packets atomically, in one frame
+     * @param packets The packets, written in the given order
+     */
+    public void queue(User user, boolean bundled, PacketWrapper<?>... packets) {
+        UUID playerId = user.getUUID();
+        if (playerId == null || packets.length == 0) {
+            return;
+        }
+        Outbox outbox = outboxes.computeIfAbsent(playerId, id -> new Outbox(user));
+        outbox.groups.add(new PacketGroup(packets, bundled && supportsBundles(user)));
+        outbox.size.addAndGet(packets.length);
+        schedule(outbox);
+    }
+
+    /**
+     * Checks whether a player has more packets waiting than should be queued.
+     *
+     * @param playerId The player UUID
+     * @return true if producers should hold back packets for the player
+     */
+    public boolean isBacklogged(UUID playerId) {
+        Outbox outbox = outboxes.get(playerId);
+        return outbox != null && outbox.size.get() > BACKLOG_LIMIT;
+    }
+
+    /**
+     * Gets the number of packets waiting for a player.
+     *
+     * @param playerId The player UUID
+     * @return The number of queued packets
+     */
+    public int getQueuedPackets(UUID playerId) {
+        Outbox outbox = outboxes.get(playerId);
+        return outbox != null ? outbox.size.get() : 0;
+    }
+
+    /**
+     * Drops the packets waiting for a player.
+     *
+     * @param playerId The player UUID
+     */
+    public void removePlayer(UUID playerId) {
+        Outbox outbox = outboxes.remove(playerId);
+        if (outbox != null) {
+            outbox.groups.clear();
+            outbox.size.set(0);
+        }
+    }
+
+    /**
+     * Drops all waiting packets.
+     */
+    public void clear() {
+        outboxes.keySet().forEach(this::removePlayer);
+    }
+
+    private void schedule(Outbox outbox) {
+        if (outbox.scheduled.compareAndSet(false, true)) {
+            ChannelHelper.runInEventLoop(outbox.user.getChannel(), () -> write(outbox));
+        }
+    }
+
+    /**
+     * Writes queued packets until the queue is empty or the channel stops being writable.
+     * Runs on the player's channel event loop.
+     */
+    private void write(Outbox outbox) {
+        Object channel = outbox.user.getChannel();
+        if (!ChannelHelper.isOpen(channel)) {
+            outboxes.remove(outbox.user.getUUID(), outbox);
+            outbox.groups.clear();
+            outbox.size.set(0);
+            return;
+        }
+
+        int written = 0;
+        int bundledPackets = -1;
+        PacketGroup group;
+        while (isWritable(channel) && (group = outbox.groups.poll()) != null) {
+            if (bundledPackets >= 0 && (!group.bundled() || bundledPackets + group.packets().length > MAX_BUNDLE_PACKETS)) {
+                outbox.user.writePacketSilently(new WrapperPlayServerBundle());
+                bundledPackets = -1;
+            }
+            if (group.bundled() && bundledPackets < 0) {
+                outbox.user.writePacketSilently(new WrapperPlayServerBundle());
+                bundledPackets = 0;
+            }
+            for (PacketWrapper<?> packet : group.packets()) {
+                outbox.user.writePacketSilently(packet);
+            }
+            if (bundledPackets >= 0) {
+                bundledPackets += group.packets().length;
+            }
+            outbox.size.addAndGet(-group.packets().length);
+            written += group.packets().length;
+        }
+        if (bundledPackets >= 0) {
+            outbox.user.writePacketSilently(new WrapperPlayServerBundle());
+        }
+        if (written > 0) {
+            outbox.user.flushPackets();
+        }
+
+        outbox.scheduled.set(false);
+        if (!outbox.groups.isEmpty()) {
+            if (isWritable(channel)) {
+                // Packets queued while this batch was written
+                schedule(outbox);
+            } else if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> schedule(outbox), 1L);
+            }
+        }
+    }
+
+    private static boolean supportsBundles(User user) {
+        return user.getClientVersion() != null && user.getClientVersion().isNewerThanOrEquals(ClientVersion.V_1_19_4);
+    }
+
+    private static boolean isWritable(Object channel) {
+        Method isWritable = IS_WRITABLE.get(channel.getClass());
+        if (isWritable == null) {
+            return true;
+        }
+        try {
+            return (boolean) isWritable.invoke(channel);
+        } catch (ReflectiveOperationException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Packets queued together.
+     *
+     * @param packets The packets in write order
+     * @param bundled Whether the packets are written inside a bundle
+     */
+    private record PacketGroup(PacketWrapper<?>[] packets, boolean bundled) {
+    }
+
+    /**
+     * Packets waiting for one player.
+     */
+    private static final class Outbox {
+        private final User user;
+        private final Queue<PacketGroup> groups = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Outbox(User user) {
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package dev.twme.blocket.managers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.World;
+
+import dev.twme.blocket.models.Stage;
+import dev.twme.blocket.types.BlocketPosition;
+import dev.twme.blocket.utils.LongObjectMap;
+
+/**
+ * Per-world spatial index from chunk to the stages whose bounds cover it.
+ * Lookups run on netty threads for every chunk packet, so they are a single primitive map
+ * lookup without locks or allocation.
+ *
+ * <p>Each world's index is copy-on-write: writers build a new map and publish it with one
+ * volatile write, and readers never see a map that is still being modified. Writes happen only
+ * when stages are created, deleted or resized, so copying the map is cheap compared to the reads.
+ * Stages created together are added with {@link #addAll(Collection)}, which copies each world's
+ * map once for the whole batch.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class StageChunkIndex {
+    private static final Stage[] NO_STAGES = new Stage[0];
+
+    private final Map<UUID, WorldIndex> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the stages whose bounds cover a chunk.
+     *
+     * @param world The world
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return The covering stages; the array is shared and must not be modified
+     */
+    public Stage[] getStages(World world, int chunkX, int chunkZ) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) {
+            return NO_STAGES;
+        }
+        Stage[] stages = index.chunks.get(chunkKey(chunkX, chunkZ));
+        return stages != null ? stages : NO_STAGES;
+    }
+
+    /**
+     * Adds a stage over its current bounds.
+     *
+     * @param stage The stage
+     */
+    public void add(Stage stage) {
+        update(stage, null, null, stage.getMinPosition(), stage.getMaxPosition());
+    }
+
+    /**
+     * Removes a stage from its current bounds.
+     *
+     * @param stage The stage
+     */
+    public void remove(Stage stage) {
+        update(stage, stage.getMinPosition(), stage.getMaxPosition(), null, null);
+    }
+
+    /**
+     * Moves a stage from its previous bounds to its current bounds.
+     *
+     * @param stage The stage
+     * @param oldMin The previous minimum corner
+     * @param oldMax The previous maximum corner
+     */
+    public void move(Stage stage, BlocketPosition oldMin, BlocketPosition oldMax) {
+        update(stage, oldMin, oldMax, stage.getMinPosition(), stage.getMaxPosition());
+    }
+
+    /**
+     * Removes all stages.
+     */
+    public void clear() {
+        worlds.clear();
+    }
+
+    /**
+     * Adds stages over their current bounds.
+     * Each world's index is copied once for the whole batch instead of once per stage.
+     *
+     * @param stages The stages
+     */
+    public void addAll(Collection<Stage> stages) {
+        Map<UUID, List<Stage>> byWorld = new HashMap<>();
+        for (Stage stage : stages) {
+            byWorld.computeIfAbsent(stage.getWorld().getUID(), id -> new ArrayList<>()).add(stage);
+        }
+        byWorld.forEach((worldId, worldStages) -> {
+            WorldIndex index = worlds.computeIfAbsent(worldId, id -> new WorldIndex());
+            synchronized (index) {
+                LongObjectMap<Stage[]> copy = copy(index.chunks);
+                for (Stage stage : worldStages) {
+                    addTo(copy, stage, stage.getMinPosition(), stage.getMaxPosition());
+                }
+                index.chunks = copy;
+            }
+        });
+    }
+
+    private void update(Stage stage, BlocketPosition oldMin, BlocketPosition oldMax,
+                        BlocketPosition newMin, BlocketPosition newMax) {
+        WorldIndex index = worlds.computeIfAbsent(stage.getWorld().getUID(), id -> new WorldIndex());
+        synchronized (index) {
+            LongObjectMap<Stage[]> copy = copy(index.chunks);
+            if (oldMin != null) {
+                removeFrom(copy, stage, oldMin, oldMax);
+            }
+            if (newMin != null) {
+                addTo(copy, stage, newMin, newMax);
+            }
+            index.chunks = copy;
+        }
+    }
+
+    private static LongObjectMap<Stage[]> copy(LongObjectMap<Stage[]> chunks) {
+        LongObjectMap<Stage[]> copy = new LongObjectMap<>(chunks.size() + 16);
+        chunks.forEach(copy::put);
+        return copy;
+    }
+
+    private static void addTo(LongObjectMap<Stage[]> chunks, Stage stage, BlocketPosition min, BlocketPosition max) {
+        forEachChunk(min, max, chunkKey -> {
+            Stage[] stages = chunks.get(chunkKey);
+            if (stages == null) {
+                chunks.put(chunkKey, new Stage[]{stage});
+            } else if (Arrays.stream(stages).noneMatch(other -> other == stage)) {
+                Stage[] added = Arrays.copyOf(stages, stages.length + 1);
+                added[stages.length] = stage;
+                chunks.put(chunkKey, added);
+            }
+        });
+    }
+
+    private static void removeFrom(LongObjectMap<Stage[]> chunks, Stage stage, BlocketPosition min, BlocketPosition max) {
+        forEachChunk(min, max, chunkKey -> {
+            Stage[] stages = chunks.get(chunkKey);
+            if (stages != null) {
+                Stage[] remaining = Arrays.stream(stages).filter(other -> other != stage).toArray(Stage[]::new);
+                if (remaining.length == 0) {
+                    chunks.remove(chunkKey);
+                } else {
+                    chunks.put(chunkKey, remaining);
+                }
+            }
+        });
+    }
+
+    private static void forEachChunk(BlocketPosition min, BlocketPosition max, ChunkKeyConsumer consumer) {
+        for (int x = min.getX() >> 4; x <= max.getX() >> 4; x++) {
+            for (int z = min.getZ() >> 4; z <= max.getZ() >> 4; z++) {
+                consumer.accept(chunkKey(x, z));
+            }
+        }
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    @FunctionalInterface
+    private interface ChunkKeyConsumer {
+        void accept(long chunkKey);
+    }
+
+    /**
+     * Chunk index of one world.
+     */
+    private static final class WorldIndex {
+        // Replaced, never modified, once published
+        private volatile LongObjectMap<Stage[]> chunks = new LongObjectMap<>();
+    }
+}
@@ -1,16 +1,23 @@
 package dev.twme.blocket.managers;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 import dev.twme.blocket.api.BlocketAPI;
 import dev.twme.blocket.events.CreateStageEvent;
 import dev.twme.blocket.events.DeleteStageEvent;
+import dev.twme.blocket.models.Audience;
 import dev.twme.blocket.models.Stage;
+import dev.twme.blocket.types.BlocketPosition;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 /**
@@ -23,7 +30,8 @@ import lombok.Getter;
  *   <li>Stage lifecycle management (create, delete, retrieve)</li>
  *   <li>Name-based stage registry for fast lookups</li>
  *   <li>Event firing for stage creation and deletion</li>
- *   <li>Player-based stage queries</li>
+ *   <li>Player-based stage queries through a player to stages index</li>
+ *   <li>Chunk-based stage queries through a per-world chunk to stages index</li>
  *   <li>Duplicate name prevention</li>
  * </ul>
  * 
@@ -31,6 +39,10 @@ import lombok.Getter;
  * The manager automatically fires appropriate events when stages are
  * created or deleted, allowing other systems to respond to stage changes.</p>
  * 
+ * <p>The player index is kept up to date by listening to each stage's audience,
+ * so stage queries for a player never scan the registered stages. The chunk index is
+ * updated when stages are created, deleted or resized.</p>
+ * 
  * @author TWME-TW
  * @version 1.0.0
  * @since 1.0.0
@@ -39,6 +51,12 @@ import lombok.Getter;
 public class StageManager {
     private final ConcurrentHashMap<String, Stage> stages;
     private final BlocketAPI api;
+    // Player UUID -> immutable list of the stages whose audience contains the player
+    private final ConcurrentHashMap<UUID, List<Stage>> playerStages = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentHashMap<String, Audience.MembershipListener> membershipListeners = new ConcurrentHashMap<>();
+    // World -> chunk -> stages whose bounds cover the chunk
+    private final StageChunkIndex chunkIndex = new StageChunkIndex();
 
     /**
      * Creates a new StageManager instance for managing virtual stages.
@@ -61,6 +79,28 @@ public class StageManager {
         }
         Bukkit.getScheduler().runTask(api.getOwnerPlugin(), () -> new CreateStageEvent(stage).callEvent());
         stages.put(stage.getName(), stage);
+        indexStage(stage);
+        chunkIndex.add(stage);
+    }
+
+    /**
+     * Create several stages at once
+     * The chunk index is updated once for the whole batch, so creating many stages is linear
+     * in their number. Stages whose name already exists are skipped.
+     * @param stagesToCreate Stages to create
+     */
+    public void createStages(Collection<Stage> stagesToCreate) {
+        List<Stage> created = new ArrayList<>(stagesToCreate.size());
+        for (Stage stage : stagesToCreate) {
+            if (stages.putIfAbsent(stage.getName(), stage) != null) {
+                api.getOwnerPlugin().getLogger().warning("Stage with name " + stage.getName() + " already exists!");
+                continue;
+            }
+            Bukkit.getScheduler().runTask(api.getOwnerPlugin(), () -> new CreateStageEvent(stage).callEvent());
+            indexStage(stage);
+            created.add(stage);
+        }
+        chunkIndex.addAll(created);
     }
 
     /**
@@ -92,6 +132,8 @@ public class StageManager {
         
         // Remove the stage from registry
         stages.remove(name);
+        unindexStage(stageToDelete);
+        chunkIndex.remove(stageToDelete);
         return true;
     }
 
@@ -106,16 +148,111 @@ public class StageManager {
 
     /**
      * Get all stages that a player is part of.
+     * This is a single index lookup, so it is cheap enough for every packet.
      * @param player The player to get stages for
-     * @return List of stages the player belongs to
+     * @return Unmodifiable list of stages the player belongs to, empty if none
      */
     public List<Stage> getStages(Player player) {
-        List<Stage> stages = new ArrayList<>();
-        for (Stage stage : this.stages.values()) {
-            if (stage.getAudience().getPlayers().contains(player.getUniqueId())) {
-                stages.add(stage);
+        List<Stage> stages = playerStages.get(player.getUniqueId());
+        return stages != null ? stages : Collections.emptyList();
+    }
+
+    /**
+     * Check if a player is part of any stage.
+     * @param player The player to check
+     * @return true if the player belongs to at least one stage
+     */
+    public boolean isInAnyStage(Player player) {
+        return playerStages.containsKey(player.getUniqueId());
+    }
+
+    /**
+     * Get all stages whose bounds cover a chunk.
+     * This is a single primitive lookup without allocation, so it is cheap enough for every chunk packet.
+     * @param world The world of the chunk
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return Shared array of the covering stages, empty if none; must not be modified
+     */
+    public Stage[] getStages(World world, int chunkX, int chunkZ) {
+        return chunkIndex.getStages(world, chunkX, chunkZ);
+    }
+
+    /**
+     * Update the chunk index after a stage's bounds changed.
+     * Stages that are not registered are ignored.
+     * @param stage The resized stage
+     * @param oldMin The previous minimum corner
+     * @param oldMax The previous maximum corner
+     */
+    public void onStageBoundsChanged(Stage stage, BlocketPosition oldMin, BlocketPosition oldMax) {
+        if (stages.get(stage.getName()) == stage) {
+            chunkIndex.move(stage, oldMin, oldMax);
+        }
+    }
+
+    /**
+     * Adds a stage's audience to the player index and keeps it updated.
+     * The listener is registered first, so players joining meanwhile are not missed.
+     * @param stage The stage to index
+     */
+    private void indexStage(Stage stage) {
+        Audience.MembershipListener listener = new Audience.MembershipListener() {
+            @Override
+            public void onJoin(UUID player) {
+                addToIndex(player, stage);
+            }
+
+            @Override
+            public void onLeave(UUID player) {
+                removeFromIndex(player, stage);
             }
+        };
+        membershipListeners.put(stage.getName(), listener);
+        stage.getAudience().addListener(listener);
+        for (UUID player : stage.getAudience().getPlayers()) {
+            addToIndex(player, stage);
         }
-        return stages;
+    }
+
+    /**
+     * Removes a stage from the player index.
+     * @param stage The stage to remove
+     */
+    private void unindexStage(Stage stage) {
+        Audience.MembershipListener listener = membershipListeners.remove(stage.getName());
+        if (listener != null) {
+            stage.getAudience().removeListener(listener);
+        }
+        for (UUID player : playerStages.keySet()) {
+            removeFromIndex(player, stage);
+        }
+    }
+
+    private void addToIndex(UUID player, Stage stage) {
+        playerStages.compute(player, (uuid, current) -> {
+            if (current == null) {
+                return List.of(stage);
+            }
+            if (current.contains(stage)) {
+                return current;
+            }
+            List<Stage> updated = new ArrayList<>(current.size() + 1);
+            updated.addAll(current);
+            updated.add(stage);
+            return Collections.unmodifiableList(updated);
+        });
+    }
+
+    private void removeFromIndex(UUID player, Stage stage) {
+        playerStages.computeIfPresent(player, (uuid, current) -> {
+            if (!current.contains(stage)) {
+                return current;
+            }
+            List<Stage> updated = new ArrayList<>(current);
+            updated.remove(stage);
+            // An empty list is removed, so a missing key means the player is in no stage
+            return updated.isEmpty() ? null : Collections.unmodifiableList(updated);
+        });
     }
 }
\ No newline at end of file
@@ -1,15 +1,18 @@
 package dev.twme.blocket.models;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import org.bukkit.entity.Player;
 
 import dev.twme.blocket.api.BlocketAPI;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -25,12 +28,16 @@ import lombok.Setter;
  *   <li>Setting individual mining speeds for players</li>
  *   <li>Converting between Player objects and UUIDs</li>
  *   <li>Filtering online players from the audience</li>
+ *   <li>Notifying membership listeners, such as the stage manager's player index</li>
  * </ul>
  *
  * <p>Mining speeds allow for customized block breaking experiences where
  * different players can have different breaking speeds, enhancing gameplay
  * mechanics like mining boosts or penalties.</p>
  *
+ * <p>Membership should be changed through {@link #addPlayer} and {@link #removePlayer};
+ * changes made directly to {@link #getPlayers()} are not seen by listeners.</p>
+ *
  * @author TWME-TW
  * @version 1.0.1
  * @since 1.0.0
@@ -41,6 +48,8 @@ public class Audience {
     private boolean arePlayersHidden;
     private final Set<UUID> players;
     private final Map<UUID, Float> miningSpeeds;
+    @Getter(AccessLevel.NONE)
+    private final List<MembershipListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Creates an Audience from a set of players with default visibility settings.
@@ -104,7 +113,9 @@ public class Audience {
      * @param player The UUID of a player to add to the audience
      */
     public void addPlayer(UUID player) {
-        players.add(player);
+        if (players.add(player)) {
+            listeners.forEach(listener -> listener.onJoin(player));
+        }
     }
 
     /**
@@ -120,7 +131,25 @@ public class Audience {
      * @param player The UUID of a player to remove from the audience
      */
     public void removePlayer(UUID player) {
-        players.remove(player);
+        if (players.remove(player)) {
+            listeners.forEach(listener -> listener.onLeave(player));
+        }
+    }
+
+    /**
+     * Registers a listener for players joining and leaving this audience.
+     * @param listener The listener to register
+     */
+    public void addListener(MembershipListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a membership listener.
+     * @param listener The listener to unregister
+     */
+    public void removeListener(MembershipListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -191,4 +220,21 @@ public class Audience {
         return miningSpeeds.getOrDefault(player, 1f);
     }
 
+    /**
+     * Listener for changes of an audience's members.
+     */
+    public interface MembershipListener {
+        /**
+         * Called after a player joined the audience
+         * @param player The UUID of the player
+         */
+        void onJoin(UUID player);
+
+        /**
+         * Called after a player left the audience
+         * @param player The UUID of the player
+         */
+        void onLeave(UUID player);
+    }
+
 }
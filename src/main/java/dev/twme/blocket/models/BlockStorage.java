@@ -0,0 +1,355 @@
+package dev.twme.blocket.models;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+import org.bukkit.block.data.BlockData;
+
+import dev.twme.blocket.types.BlocketChunk;
+import dev.twme.blocket.types.BlocketPosition;
+import dev.twme.blocket.utils.LongObjectMap;
+
+/**
+ * Thread-safe storage of virtual blocks, grouped by chunk and section.
+ * Chunks and sections are keyed by packed long coordinates in open-addressing primitive maps,
+ * and each section stores its blocks in a {@link ViewSection}, which adapts its representation
+ * to how full the section is.
+ *
+ * <p>Reads share a read lock and writes take a write lock. Methods that return collections
+ * return copies, which callers may keep and modify.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class BlockStorage {
+    // Chunk key -> section Y -> section
+    private final LongObjectMap<LongObjectMap<ViewSection>> chunks = new LongObjectMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    /**
+     * Gets the block at a position
+     *
+     * @param position The block position
+     * @return The block data, or null if no block is stored there
+     */
+    public BlockData get(BlocketPosition position) {
+        return get(position.getX(), position.getY(), position.getZ());
+    }
+
+    /**
+     * Gets the block at a position without creating a position object
+     *
+     * @param x The block X coordinate
+     * @param y The block Y coordinate
+     * @param z The block Z coordinate
+     * @return The block data, or null if no block is stored there
+     */
+    public BlockData get(int x, int y, int z) {
+        lock.readLock().lock();
+        try {
+            LongObjectMap<ViewSection> column = chunks.get(chunkKey(x >> 4, z >> 4));
+            ViewSection section = column == null ? null : column.get(y >> 4);
+            return section == null ? null : section.get(ViewSection.index(x & 15, y & 15, z & 15));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a block is stored at a position
+     *
+     * @param position The block position
+     * @return true if a block is stored there
+     */
+    public boolean contains(BlocketPosition position) {
+        return get(position) != null;
+    }
+
+    /**
+     * Stores a block
+     *
+     * @param position The block position
+     * @param blockData The block data
+     * @return The previous block data, or null if there was none
+     */
+    public BlockData put(BlocketPosition position, BlockData blockData) {
+        lock.writeLock().lock();
+        try {
+            long chunkKey = chunkKey(position);
+            LongObjectMap<ViewSection> column = chunks.get(chunkKey);
+            if (column == null) {
+                column = new LongObjectMap<>();
+                chunks.put(chunkKey, column);
+            }
+            int sectionY = position.getY() >> 4;
+            ViewSection section = column.get(sectionY);
+            if (section == null) {
+                section = new ViewSection();
+                column.put(sectionY, section);
+            }
+            BlockData previous = section.put(localIndex(position), blockData);
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a block only if one is already stored at the position
+     *
+     * @param position The block position
+     * @param blockData The new block data
+     * @return The previous block data, or null if nothing was stored and nothing was changed
+     */
+    public BlockData replace(BlocketPosition position, BlockData blockData) {
+        lock.writeLock().lock();
+        try {
+            ViewSection section = section(position);
+            int index = localIndex(position);
+            if (section == null || section.get(index) == null) {
+                return null;
+            }
+            return section.put(index, blockData);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a block
+     * Sections and chunks without blocks are dropped.
+     *
+     * @param position The block position
+     * @return The removed block data, or null if there was none
+     */
+    public BlockData remove(BlocketPosition position) {
+        lock.writeLock().lock();
+        try {
+            long chunkKey = chunkKey(position);
+            LongObjectMap<ViewSection> column = chunks.get(chunkKey);
+            int sectionY = position.getY() >> 4;
+            ViewSection section = column == null ? null : column.get(sectionY);
+            if (section == null) {
+                return null;
+            }
+            BlockData previous = section.remove(localIndex(position));
+            if (previous != null) {
+                size--;
+                if (section.isEmpty()) {
+                    column.remove(sectionY);
+                    if (column.isEmpty()) {
+                        chunks.remove(chunkKey);
+                    }
+                }
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether any block is stored in a chunk
+     *
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return true if the chunk holds at least one block
+     */
+    public boolean hasChunk(int chunkX, int chunkZ) {
+        lock.readLock().lock();
+        try {
+            return chunks.containsKey(chunkKey(chunkX, chunkZ));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets all chunks holding at least one block
+     *
+     * @return A new set of chunks
+     */
+    public Set<BlocketChunk> getChunks() {
+        lock.readLock().lock();
+        try {
+            Set<BlocketChunk> result = new HashSet<>();
+            chunks.forEach((chunkKey, chunkBlocks) -> result.add(new BlocketChunk((int) chunkKey, (int) (chunkKey >> 32))));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the positions of all blocks in a chunk
+     *
+     * @param chunk The chunk
+     * @return A new set of positions, empty if the chunk holds no blocks
+     */
+    public Set<BlocketPosition> getPositions(BlocketChunk chunk) {
+        Set<BlocketPosition> result = new HashSet<>();
+        forEachInChunk(chunk, (position, blockData) -> result.add(position));
+        return result;
+    }
+
+    /**
+     * Gets all blocks in a chunk
+     *
+     * @param chunk The chunk
+     * @return A new map of the blocks, or null if the chunk holds no blocks
+     */
+    public Map<BlocketPosition, BlockData> getChunk(BlocketChunk chunk) {
+        Map<BlocketPosition, BlockData> result = new HashMap<>();
+        return copyChunkInto(chunk, result) ? result : null;
+    }
+
+    /**
+     * Copies all blocks in a chunk into a map, overwriting entries at the same positions
+     *
+     * @param chunk The chunk
+     * @param target The map to copy into
+     * @return true if the chunk held at least one block
+     */
+    public boolean copyChunkInto(BlocketChunk chunk, Map<BlocketPosition, BlockData> target) {
+        lock.readLock().lock();
+        try {
+            LongObjectMap<ViewSection> column = chunks.get(chunkKey(chunk.x(), chunk.z()));
+            if (column == null) {
+                return false;
+            }
+            forEachBlock(chunk, column, target::put);
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calls the consumer for every block in a chunk
+     * The consumer runs under the read lock and must not modify this storage.
+     *
+     * @param chunk The chunk
+     * @param consumer The block consumer
+     */
+    public void forEachInChunk(BlocketChunk chunk, BiConsumer<BlocketPosition, BlockData> consumer) {
+        lock.readLock().lock();
+        try {
+            LongObjectMap<ViewSection> column = chunks.get(chunkKey(chunk.x(), chunk.z()));
+            if (column != null) {
+                forEachBlock(chunk, column, consumer);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calls the consumer for every non-empty section of a chunk
+     * This is the bulk access path for chunk building: sections can be iterated with
+     * {@link ViewSection#forEach} or copied into a section array with {@link ViewSection#copyInto}.
+     * The consumer runs under the read lock and must neither modify this storage nor keep the section.
+     *
+     * @param chunk The chunk
+     * @param consumer The section consumer, receiving the section Y coordinate ({@code blockY >> 4})
+     */
+    public void forEachSection(BlocketChunk chunk, SectionConsumer consumer) {
+        lock.readLock().lock();
+        try {
+            LongObjectMap<ViewSection> column = chunks.get(chunkKey(chunk.x(), chunk.z()));
+            if (column != null) {
+                column.forEach((sectionY, section) -> consumer.accept((int) sectionY, section));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of stored blocks
+     *
+     * @return The number of blocks
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the storage is empty
+     *
+     * @return true if no blocks are stored
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all blocks
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            chunks.clear();
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private ViewSection section(BlocketPosition position) {
+        LongObjectMap<ViewSection> column = chunks.get(chunkKey(position));
+        return column == null ? null : column.get(position.getY() >> 4);
+    }
+
+    private static void forEachBlock(BlocketChunk chunk, LongObjectMap<ViewSection> column,
+                                     BiConsumer<BlocketPosition, BlockData> consumer) {
+        int baseX = chunk.x() << 4;
+        int baseZ = chunk.z() << 4;
+        column.forEach((sectionY, section) -> {
+            int baseY = (int) sectionY << 4;
+            section.forEach((index, blockData) -> consumer.accept(
+                    new BlocketPosition(baseX + (index & 15), baseY + (index >> 8), baseZ + ((index >> 4) & 15)),
+                    blockData));
+        });
+    }
+
+    private static int localIndex(BlocketPosition position) {
+        return ViewSection.index(position.getX() & 15, position.getY() & 15, position.getZ() & 15);
+    }
+
+    private static long chunkKey(BlocketPosition position) {
+        return chunkKey(position.getX() >> 4, position.getZ() >> 4);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        // Same layout as Bukkit's Chunk#getChunkKey
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    /**
+     * Consumer of the sections of a chunk
+     */
+    @FunctionalInterface
+    public interface SectionConsumer {
+        /**
+         * Accepts a section
+         *
+         * @param sectionY The section Y coordinate
+         * @param section The section, valid only for the duration of the call
+         */
+        void accept(int sectionY, ViewSection section);
+    }
+}
@@ -0,0 +1,144 @@
+package dev.twme.blocket.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.block.data.BlockData;
+
+import dev.twme.blocket.constants.ChunkConstants;
+import dev.twme.blocket.types.BlocketChunk;
+import dev.twme.blocket.types.BlocketPosition;
+
+/**
+ * The virtual blocks a player sees in one chunk, stored per section.
+ * Layers are composed with {@link ViewSection#copyInto(BlockData[])}, so building a chunk
+ * never creates a position object or map entry per virtual block.
+ *
+ * <p>Each section is an array of {@link ChunkConstants#SECTION_VOLUME} entries indexed by
+ * {@link ViewSection#index(int, int, int)}, with null where no layer has a block.
+ * A composed chunk is owned by the caller that composed it and is not modified afterwards.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class ComposedChunk {
+    private final BlocketChunk chunk;
+    // Section Y (blockY >> 4) -> blocks of the section
+    private final Map<Integer, BlockData[]> sections = new HashMap<>();
+
+    /**
+     * Creates an empty composed chunk.
+     *
+     * @param chunk The chunk
+     */
+    public ComposedChunk(BlocketChunk chunk) {
+        this.chunk = chunk;
+    }
+
+    /**
+     * Gets the chunk.
+     *
+     * @return The chunk
+     */
+    public BlocketChunk getChunk() {
+        return chunk;
+    }
+
+    /**
+     * Gets the blocks of a section.
+     *
+     * @param sectionY The section Y coordinate ({@code blockY >> 4})
+     * @return The blocks indexed by local index, or null if no layer has blocks in the section
+     */
+    public BlockData[] getSection(int sectionY) {
+        return sections.get(sectionY);
+    }
+
+    /**
+     * Gets the blocks of a section for writing, creating the section if needed.
+     *
+     * @param sectionY The section Y coordinate
+     * @return The blocks indexed by local index
+     */
+    BlockData[] section(int sectionY) {
+        return sections.computeIfAbsent(sectionY, y -> new BlockData[ChunkConstants.SECTION_VOLUME]);
+    }
+
+    /**
+     * Calls the consumer for every section that has blocks.
+     *
+     * @param consumer The section consumer
+     */
+    public void forEachSection(SectionConsumer consumer) {
+        sections.forEach(consumer::accept);
+    }
+
+    /**
+     * Calls the consumer for every block.
+     *
+     * @param consumer The block consumer, receiving the world coordinates of the block
+     */
+    public void forEach(BlockConsumer consumer) {
+        int baseX = chunk.x() << 4;
+        int baseZ = chunk.z() << 4;
+        sections.forEach((sectionY, blocks) -> {
+            int baseY = sectionY << 4;
+            for (int index = 0; index < blocks.length; index++) {
+                if (blocks[index] != null) {
+                    consumer.accept(baseX + (index & 15), baseY + (index >> 8), baseZ + ((index >> 4) & 15), blocks[index]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks whether no layer has blocks in the chunk.
+     *
+     * @return true if the chunk has no virtual blocks
+     */
+    public boolean isEmpty() {
+        return sections.isEmpty();
+    }
+
+    /**
+     * Copies the blocks into a position map, for callers that need one.
+     *
+     * @return A new map of the blocks
+     */
+    public Map<BlocketPosition, BlockData> toMap() {
+        Map<BlocketPosition, BlockData> blocks = new HashMap<>();
+        forEach((x, y, z, blockData) -> blocks.put(new BlocketPosition(x, y, z), blockData));
+        return blocks;
+    }
+
+    /**
+     * Consumer of the sections of a composed chunk
+     */
+    @FunctionalInterface
+    public interface SectionConsumer {
+        /**
+         * Accepts a section
+         *
+         * @param sectionY The section Y coordinate
+         * @param blocks The blocks indexed by local index; must not be modified
+         */
+        void accept(int sectionY, BlockData[] blocks);
+    }
+
+    /**
+     * Consumer of the blocks of a composed chunk
+     */
+    @FunctionalInterface
+    public interface BlockConsumer {
+        /**
+         * Accepts a block
+         *
+         * @param x The block X coordinate
+         * @param y The block Y coordinate
+         * @param z The block Z coordinate
+         * @param blockData The block data
+         */
+        void accept(int x, int y, int z, BlockData blockData);
+    }
+}
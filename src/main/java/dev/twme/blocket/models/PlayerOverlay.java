@@ -0,0 +1,494 @@
+package dev.twme.blocket.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+
+import dev.twme.blocket.types.BlocketChunk;
+import dev.twme.blocket.types.BlocketPosition;
+
+/**
+ * Represents the virtual blocks a single player sees.
+ * The overlay does not copy any block data; it references the views visible to the player,
+ * which own their blocks, and keeps a small per-player diff on top of them.
+ *
+ * <p>Lookups resolve through the layers in this order:
+ * <ul>
+ *   <li>The per-player diff</li>
+ *   <li>Visible views, from the highest zIndex to the lowest</li>
+ * </ul>
+ *
+ * <p>Views explicitly hidden from the player stay hidden until they are shown again,
+ * even if their blocks change in the meantime.</p>
+ *
+ * <p>Lookups resolve against the views' own storage, one primitive lookup per layer, through a
+ * sorted layer list that is rebuilt only when views are shown, hidden or reordered. Nothing is
+ * copied per player. Every position whose visible block actually changed is reported to the
+ * overlay's {@link ChangeListener}, so callers receive exact diffs. When a view is shown, hidden or
+ * reordered, only the view's own positions are resolved again, section by section from its
+ * {@link ViewSection}s, and the changes are reported once per section.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class PlayerOverlay {
+    private static final Comparator<View> LAYER_ORDER = Comparator.comparingInt(View::getZIndex).thenComparing(View::getName);
+
+    private final Map<String, View> visibleViews = new ConcurrentHashMap<>();
+    private final Set<String> hiddenViews = ConcurrentHashMap.newKeySet();
+    private final BlockStorage diff = new BlockStorage();
+    private final ChangeListener listener;
+    // Visible views from the lowest layer to the highest, rebuilt lazily; guarded by layerLock when written
+    private volatile View[] layers;
+    private final Object layerLock = new Object();
+
+    /**
+     * Creates an overlay that does not report changes.
+     */
+    public PlayerOverlay() {
+        this(null);
+    }
+
+    /**
+     * Creates an overlay that reports changes of its visible blocks.
+     *
+     * @param listener The listener notified of every changed visible block, or null
+     */
+    public PlayerOverlay(ChangeListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Shows a view to the player, even if it was hidden before.
+     *
+     * @param view The view to show
+     */
+    public void showView(View view) {
+        hiddenViews.remove(view.getName());
+        if (visibleViews.get(view.getName()) != view) {
+            changeLayers(view, () -> visibleViews.put(view.getName(), view));
+        }
+    }
+
+    /**
+     * Shows a view to the player unless it was explicitly hidden.
+     *
+     * @param view The view to show
+     * @return true if the view is visible after the call
+     */
+    public boolean showViewUnlessHidden(View view) {
+        if (hiddenViews.contains(view.getName())) {
+            return false;
+        }
+        if (!visibleViews.containsKey(view.getName())) {
+            changeLayers(view, () -> visibleViews.putIfAbsent(view.getName(), view));
+        }
+        return true;
+    }
+
+    /**
+     * Hides a view from the player.
+     *
+     * @param view The view to hide
+     * @return The view that was visible, or null if it was not visible
+     */
+    public View hideView(View view) {
+        hiddenViews.add(view.getName());
+        return removeView(view.getName());
+    }
+
+    /**
+     * Forgets a view entirely, whether it was visible or hidden.
+     *
+     * @param viewName The name of the view to forget
+     * @return The view that was visible, or null if it was not visible
+     */
+    public View forgetView(String viewName) {
+        hiddenViews.remove(viewName);
+        return removeView(viewName);
+    }
+
+    /**
+     * Gets a visible view by name.
+     *
+     * @param viewName The name of the view
+     * @return The visible view, or null if no view with that name is visible
+     */
+    public View getVisibleView(String viewName) {
+        return visibleViews.get(viewName);
+    }
+
+    /**
+     * Gets all views visible to the player.
+     *
+     * @return An unmodifiable view of the visible views
+     */
+    public Map<String, View> getVisibleViews() {
+        return Collections.unmodifiableMap(visibleViews);
+    }
+
+    /**
+     * Sets a per-player block that overrides all views.
+     *
+     * @param world The world of the block
+     * @param position The block position
+     * @param blockData The block data to show to this player
+     */
+    public void setDiff(World world, BlocketPosition position, BlockData blockData) {
+        BlockData before = visibleData(world, position);
+        diff.put(position, blockData);
+        report(world, position, before);
+    }
+
+    /**
+     * Removes a per-player block, so the position resolves through the views again.
+     *
+     * @param world The world of the block
+     * @param position The block position
+     */
+    public void removeDiff(World world, BlocketPosition position) {
+        BlockData before = visibleData(world, position);
+        if (diff.remove(position) != null) {
+            report(world, position, before);
+        }
+    }
+
+    /**
+     * Reports a change of a view's block and drops the per-player block that would cover it.
+     * The view already stores the new block; the previous one is needed to know what the player saw.
+     *
+     * @param world The world of the block
+     * @param view The view whose block changed
+     * @param position The block position
+     * @param previous The block the view stored before, or null if it had none
+     */
+    public void applyViewBlockChange(World world, View view, BlocketPosition position, BlockData previous) {
+        BlockData before = diff.remove(position);
+        if (before == null) {
+            VisibleBlock visible = lookup(world, position.getX(), position.getY(), position.getZ(), view, previous);
+            before = visible != null ? visible.blockData() : null;
+        }
+        report(world, position, before);
+    }
+
+    /**
+     * Gets the block the player sees at a position.
+     * Resolves through the per-player blocks and then the sorted layers of the world,
+     * with one primitive lookup per layer.
+     *
+     * @param world The world
+     * @param x The block X coordinate
+     * @param y The block Y coordinate
+     * @param z The block Z coordinate
+     * @return The visible block, or null if the player sees no virtual block there
+     */
+    public VisibleBlock getVisibleBlock(World world, int x, int y, int z) {
+        return lookup(world, x, y, z, null, null);
+    }
+
+    /**
+     * Updates the layer order after the zIndex of a view changed.
+     *
+     * @param view The view whose zIndex changed
+     */
+    public void reorderView(View view) {
+        if (visibleViews.get(view.getName()) == view) {
+            changeLayers(view, () -> { });
+        }
+    }
+
+    /**
+     * Resolves the block the player sees at a position.
+     *
+     * @param position The block position
+     * @return The visible block data, or null if no layer has a block there
+     */
+    public BlockData resolve(BlocketPosition position) {
+        BlockData blockData = diff.get(position);
+        if (blockData != null) {
+            return blockData;
+        }
+
+        View[] layers = layers();
+        for (int i = layers.length - 1; i >= 0; i--) {
+            blockData = layers[i].getBlocks().get(position);
+            if (blockData != null) {
+                return blockData;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Composes the blocks the player sees in a chunk.
+     * Higher layers overwrite lower ones; the result is a new map owned by the caller.
+     *
+     * @param chunk The chunk to compose
+     * @return The composed blocks, or null if no layer has blocks in the chunk
+     */
+    public Map<BlocketPosition, BlockData> compose(BlocketChunk chunk) {
+        Map<BlocketPosition, BlockData> composed = new HashMap<>();
+        boolean found = false;
+        for (View view : layers()) {
+            found |= view.getBlocks().copyChunkInto(chunk, composed);
+        }
+        found |= diff.copyChunkInto(chunk, composed);
+        return found ? composed : null;
+    }
+
+    /**
+     * Composes the blocks the player sees in a chunk section by section.
+     * Each layer's sections are copied over the lower ones in bulk, without a per-block map entry.
+     *
+     * @param chunk The chunk to compose
+     * @return The composed chunk, or null if no layer has blocks in the chunk
+     */
+    public ComposedChunk composeSections(BlocketChunk chunk) {
+        ComposedChunk composed = new ComposedChunk(chunk);
+        for (View view : layers()) {
+            view.getBlocks().forEachSection(chunk, (sectionY, section) -> section.copyInto(composed.section(sectionY)));
+        }
+        diff.forEachSection(chunk, (sectionY, section) -> section.copyInto(composed.section(sectionY)));
+        return composed.isEmpty() ? null : composed;
+    }
+
+    /**
+     * Gets all chunks in which the player sees at least one virtual block.
+     *
+     * @return A new set of chunks
+     */
+    public Set<BlocketChunk> getChunks() {
+        Set<BlocketChunk> chunks = diff.getChunks();
+        for (View view : visibleViews.values()) {
+            chunks.addAll(view.getBlocks().getChunks());
+        }
+        return chunks;
+    }
+
+    /**
+     * Removes visible views that no longer belong to their stage.
+     *
+     * @return The number of removed views
+     */
+    public int removeOrphanedViews() {
+        List<View> orphaned = new ArrayList<>();
+        visibleViews.values().removeIf(view -> {
+            boolean orphan = view.getStage() == null || view.getStage().getView(view.getName()) != view;
+            if (orphan) {
+                orphaned.add(view);
+            }
+            return orphan;
+        });
+        if (!orphaned.isEmpty()) {
+            invalidateLayers();
+        }
+        return orphaned.size();
+    }
+
+    /**
+     * Removes all views of a stage, whether visible or hidden.
+     *
+     * @param stage The stage whose views should be removed
+     */
+    public void removeStage(Stage stage) {
+        for (View view : stage.getViews()) {
+            visibleViews.remove(view.getName(), view);
+            hiddenViews.remove(view.getName());
+        }
+        invalidateLayers();
+    }
+
+    /**
+     * Checks whether the overlay holds no state at all.
+     *
+     * @return true if there are no visible views, hidden views or per-player blocks
+     */
+    public boolean isEmpty() {
+        return visibleViews.isEmpty() && hiddenViews.isEmpty() && diff.isEmpty();
+    }
+
+    private View removeView(String viewName) {
+        View view = visibleViews.get(viewName);
+        if (view == null) {
+            return null;
+        }
+        View[] removed = new View[1];
+        changeLayers(view, () -> removed[0] = visibleViews.remove(viewName));
+        return removed[0];
+    }
+
+    /**
+     * Applies a change of the visible views and reports the positions of the view whose visible block changed.
+     * Only the view's own positions can change; they are captured per section as local indexes,
+     * without a position object per block.
+     */
+    private void changeLayers(View view, Runnable change) {
+        if (listener == null || view.getStage() == null) {
+            change.run();
+            invalidateLayers();
+            return;
+        }
+        World world = view.getStage().getWorld();
+        List<SectionChange> sections = new ArrayList<>();
+        for (BlocketChunk chunk : view.getBlocks().getChunks()) {
+            view.getBlocks().forEachSection(chunk, (sectionY, section) -> {
+                int[] indexes = new int[section.size()];
+                int[] count = new int[1];
+                section.forEach((index, blockData) -> indexes[count[0]++] = index);
+                sections.add(new SectionChange(chunk, sectionY, Arrays.copyOf(indexes, count[0])));
+            });
+        }
+        for (SectionChange section : sections) {
+            section.capture(world);
+        }
+
+        change.run();
+        invalidateLayers();
+        for (SectionChange section : sections) {
+            section.report(world);
+        }
+    }
+
+    /**
+     * Resolves a position, optionally as if a view still stored its previous block there.
+     */
+    private VisibleBlock lookup(World world, int x, int y, int z, View replaced, BlockData replacedData) {
+        BlockData blockData = diff.get(x, y, z);
+        if (blockData != null) {
+            return new VisibleBlock(null, blockData);
+        }
+        View[] layers = layers();
+        for (int i = layers.length - 1; i >= 0; i--) {
+            View view = layers[i];
+            if (view.getStage() == null || !view.getStage().getWorld().equals(world)) {
+                continue;
+            }
+            blockData = view == replaced ? replacedData : view.getBlocks().get(x, y, z);
+            if (blockData != null) {
+                return new VisibleBlock(view, blockData);
+            }
+        }
+        return null;
+    }
+
+    private BlockData visibleData(World world, BlocketPosition position) {
+        VisibleBlock visible = lookup(world, position.getX(), position.getY(), position.getZ(), null, null);
+        return visible != null ? visible.blockData() : null;
+    }
+
+    /**
+     * Reports a position to the listener if the block the player sees there changed.
+     */
+    private void report(World world, BlocketPosition position, BlockData before) {
+        if (listener != null && !Objects.equals(before, visibleData(world, position))) {
+            listener.onVisibleBlockChanged(this, world, position, before);
+        }
+    }
+
+    private View[] layers() {
+        View[] current = layers;
+        if (current == null) {
+            synchronized (layerLock) {
+                current = layers;
+                if (current == null) {
+                    current = visibleViews.values().toArray(new View[0]);
+                    Arrays.sort(current, LAYER_ORDER);
+                    layers = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void invalidateLayers() {
+        synchronized (layerLock) {
+            layers = null;
+        }
+    }
+
+    /**
+     * Receives the changes of an overlay's visible blocks.
+     */
+    public interface ChangeListener {
+        /**
+         * Called after the block the player sees at a position changed.
+         *
+         * @param overlay The overlay that changed
+         * @param world The world of the block
+         * @param position The block position
+         * @param previous The block the player saw before, or null if it was the real block
+         */
+        void onVisibleBlockChanged(PlayerOverlay overlay, World world, BlocketPosition position, BlockData previous);
+
+        /**
+         * Called after the blocks the player sees changed at several positions of one section,
+         * when a view was shown, hidden or reordered.
+         *
+         * @param overlay The overlay that changed
+         * @param world The world of the section
+         * @param chunk The chunk of the section
+         * @param sectionY The section Y coordinate ({@code blockY >> 4})
+         * @param indexes The local indexes ({@link ViewSection#index(int, int, int)}) of the changed blocks
+         * @param previous The blocks the player saw before, parallel to the indexes; null means the real block
+         */
+        void onSectionChanged(PlayerOverlay overlay, World world, BlocketChunk chunk, int sectionY, int[] indexes, BlockData[] previous);
+    }
+
+    /**
+     * Positions of one section of a view whose layer changes, with what the player saw there before.
+     */
+    private final class SectionChange {
+        private final BlocketChunk chunk;
+        private final int sectionY;
+        private final int[] indexes;
+        private final BlockData[] before;
+
+        private SectionChange(BlocketChunk chunk, int sectionY, int[] indexes) {
+            this.chunk = chunk;
+            this.sectionY = sectionY;
+            this.indexes = indexes;
+            this.before = new BlockData[indexes.length];
+        }
+
+        private void capture(World world) {
+            for (int i = 0; i < indexes.length; i++) {
+                before[i] = visibleData(world, indexes[i]);
+            }
+        }
+
+        /**
+         * Reports the positions whose visible block differs from the captured one.
+         */
+        private void report(World world) {
+            int changed = 0;
+            for (int i = 0; i < indexes.length; i++) {
+                if (!Objects.equals(before[i], visibleData(world, indexes[i]))) {
+                    indexes[changed] = indexes[i];
+                    before[changed] = before[i];
+                    changed++;
+                }
+            }
+            if (changed > 0) {
+                listener.onSectionChanged(PlayerOverlay.this, world, chunk, sectionY,
+                        Arrays.copyOf(indexes, changed), Arrays.copyOf(before, changed));
+            }
+        }
+
+        private BlockData visibleData(World world, int index) {
+            VisibleBlock visible = lookup(world, (chunk.x() << 4) + (index & 15), (sectionY << 4) + (index >> 8),
+                    (chunk.z() << 4) + ((index >> 4) & 15), null, null);
+            return visible != null ? visible.blockData() : null;
+        }
+    }
+}
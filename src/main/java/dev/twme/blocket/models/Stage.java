@@ -60,6 +60,36 @@ public class Stage {
         this.chunksPerTick = 1;
     }
 
+    /**
+     * Sets the maximum corner of this stage's boundaries.
+     * The chunk index of a registered stage is updated to the new bounds.
+     *
+     * @param maxPosition The new maximum corner
+     */
+    public void setMaxPosition(@NonNull BlocketPosition maxPosition) {
+        BlocketPosition oldMax = this.maxPosition;
+        this.maxPosition = maxPosition;
+        onBoundsChanged(minPosition, oldMax);
+    }
+
+    /**
+     * Sets the minimum corner of this stage's boundaries.
+     * The chunk index of a registered stage is updated to the new bounds.
+     *
+     * @param minPosition The new minimum corner
+     */
+    public void setMinPosition(@NonNull BlocketPosition minPosition) {
+        BlocketPosition oldMin = this.minPosition;
+        this.minPosition = minPosition;
+        onBoundsChanged(oldMin, maxPosition);
+    }
+
+    private void onBoundsChanged(BlocketPosition oldMin, BlocketPosition oldMax) {
+        if (BlocketAPI.isInitialized()) {
+            BlocketAPI.getInstance().getStageManager().onStageBoundsChanged(this, oldMin, oldMax);
+        }
+    }
+
     /**
      * Checks if the specified location is within this stage's boundaries.
      *
@@ -156,19 +186,15 @@ public class Stage {
     }
 
     /**
-     * Add a given view to a player. Uses existing methods:
-     * - Stage: getView(...)
-     * - View: getBlocks() (already present in View)
-     * - BlockChangeManager: addViewToPlayer(player, view)
+     * Add a given view to a player.
+     * Only the blocks that change for this player are sent, as multi-block changes grouped by section
+     * or, once a section changes more blocks than the multi-block change threshold, as a full chunk resend.
      *
      * @param player The player to add the view for
      * @param view The view to add
      */
     public void addViewForPlayer(@NonNull Player player, @NonNull View view) {
-        // This method uses BlockChangeManager's addViewToPlayer to merge the view's blocks into player's cache
-        BlocketAPI.getInstance().getBlockChangeManager().addViewToPlayer(player, view);
-        // After updating what the player sees, refresh all blocks
-        sendBlocksToAudience();
+        BlocketAPI.getInstance().getBlockChangeManager().showView(player, view);
     }
 
     /**
@@ -188,18 +214,15 @@ public class Stage {
     }
 
     /**
-     * Remove a given view from a player. Uses existing methods:
-     * - View: getBlocks()
-     * - BlockChangeManager: removeViewFromPlayer(player, view)
+     * Remove a given view from a player.
+     * Only the blocks that change for this player are sent, like when adding a view; blocks no other
+     * view covers are reverted to the real world blocks.
      *
      * @param player The player to remove the view from
      * @param view The view to remove
      */
     public void removeViewForPlayer(@NonNull Player player, @NonNull View view) {
-        // Remove view's blocks from player's cache
-        BlocketAPI.getInstance().getBlockChangeManager().removeViewFromPlayer(player, view);
-        // Refresh all blocks for audience after removing the view
-        sendBlocksToAudience();
+        BlocketAPI.getInstance().getBlockChangeManager().hideView(player, view);
     }
 
     /**
@@ -1,8 +1,6 @@
 package dev.twme.blocket.models;
 
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,7 +32,7 @@ import lombok.Setter;
 public class View {
     private static final Logger LOGGER = Logger.getLogger(View.class.getName());
     
-    private final Map<BlocketChunk, Map<BlocketPosition, BlockData>> blocks;
+    private final BlockStorage blocks;
     private Stage stage;
     private final String name;
     private int zIndex;
@@ -43,17 +41,17 @@ public class View {
 
     /**
      * Utility method: Safely applies block changes to all viewers with exception handling
-     * Eliminates duplicate player traversal logic to improve code maintainability
+     * The block data itself lives in this view; viewers only reference the view, so no data is copied
      *
      * @param chunk The chunk where the block is located
      * @param position Block position
-     * @param blockData Block data, null means remove the block
+     * @param previous Block data stored before the change, null if there was none
      * @param operation Operation description for logging
      */
-    private void applyBlockChangeToViewers(BlocketChunk chunk, BlocketPosition position, BlockData blockData, String operation) {
+    private void applyBlockChangeToViewers(BlocketChunk chunk, BlocketPosition position, BlockData previous, String operation) {
         for (Player viewer : stage.getAudience().getOnlinePlayers()) {
             try {
-                BlocketAPI.getInstance().getBlockChangeManager().applyBlockChange(viewer, chunk, position, blockData, this.name);
+                BlocketAPI.getInstance().getBlockChangeManager().applyViewBlockChange(viewer, this, chunk, position, previous);
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, String.format("Failed to apply %s for player %s at position %s in view %s",
                     operation, viewer.getName(), position, this.name), e);
@@ -71,13 +69,29 @@ public class View {
      */
     public View(@NonNull String name, @NonNull Stage stage, @NonNull Pattern pattern, boolean breakable) {
         this.name = name;
-        this.blocks = new ConcurrentHashMap<>();
+        this.blocks = new BlockStorage();
         this.stage = stage;
         this.breakable = breakable;
         this.pattern = pattern;
         this.zIndex = 0;
     }
 
+    /**
+     * Sets the zIndex of this view; views with a higher zIndex render on top.
+     * Viewers' layer order is updated and the blocks that changed for them are sent.
+     *
+     * @param zIndex The new zIndex
+     */
+    public void setZIndex(int zIndex) {
+        if (this.zIndex == zIndex) {
+            return;
+        }
+        this.zIndex = zIndex;
+        if (BlocketAPI.isInitialized()) {
+            BlocketAPI.getInstance().getBlockChangeManager().reorderView(this);
+        }
+    }
+
     /**
      * Gets the highest solid block at the specified X and Z coordinates within this view.
      * Searches from the stage's maximum Y down to minimum Y.
@@ -123,13 +137,10 @@ public class View {
     public void removeBlock(@NonNull BlocketPosition position) {
         try {
             BlocketChunk chunk = position.toBlocketChunk();
-            Map<BlocketPosition, BlockData> chunkMap = blocks.get(chunk);
-            if (chunkMap != null && chunkMap.remove(position) != null && chunkMap.isEmpty()) {
-                blocks.remove(chunk);
-            }
+            BlockData previous = blocks.remove(position);
 
-            // Also update each viewer's cache: data = null means remove the block
-            applyBlockChangeToViewers(chunk, position, null, "block removal");
+            // Also update each viewer's cache with the removed block
+            applyBlockChangeToViewers(chunk, position, previous, "block removal");
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, String.format("Error removing block at position %s in view %s", position, this.name), e);
         }
@@ -152,13 +163,12 @@ public class View {
     public void removeAllBlocks() {
         try {
             // Removing all blocks in bulk, update caches accordingly
-            blocks.forEach((chunk, chunkMap) -> {
-                if (chunkMap == null) return;
-                chunkMap.keySet().forEach(position -> {
+            for (BlocketChunk chunk : blocks.getChunks()) {
+                for (BlocketPosition position : blocks.getPositions(chunk)) {
                     // Apply removal to each viewer
-                    applyBlockChangeToViewers(chunk, position, null, "bulk block removal");
-                });
-            });
+                    applyBlockChangeToViewers(chunk, position, blocks.remove(position), "bulk block removal");
+                }
+            }
             blocks.clear();
             
             // Clear view-specific cache data from BlockChangeManager to prevent stale data
@@ -183,10 +193,10 @@ public class View {
             }
             
             BlocketChunk chunk = position.toBlocketChunk();
-            blocks.computeIfAbsent(chunk, c -> new ConcurrentHashMap<>()).put(position, newData);
+            BlockData previous = blocks.put(position, newData);
 
             // Update each viewer's cache with the new block
-            applyBlockChangeToViewers(chunk, position, newData, "block addition");
+            applyBlockChangeToViewers(chunk, position, previous, "block addition");
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, String.format("Error adding block at position %s in view %s", position, this.name), e);
         }
@@ -209,8 +219,7 @@ public class View {
      * @return true if a block exists at the position, false otherwise
      */
     public boolean hasBlock(@NonNull BlocketPosition position) {
-        Map<BlocketPosition, BlockData> chunkMap = blocks.get(position.toBlocketChunk());
-        return chunkMap != null && chunkMap.containsKey(position);
+        return blocks.contains(position);
     }
 
     /**
@@ -230,8 +239,7 @@ public class View {
      * @return The BlockData at the position, or null if no block exists
      */
     public BlockData getBlock(@NonNull BlocketPosition position) {
-        Map<BlocketPosition, BlockData> chunkMap = blocks.get(position.toBlocketChunk());
-        return (chunkMap == null) ? null : chunkMap.get(position);
+        return blocks.get(position);
     }
 
     /**
@@ -242,7 +250,7 @@ public class View {
      * @return true if the view contains blocks in the specified chunk
      */
     public boolean hasChunk(int x, int z) {
-        return blocks.containsKey(new BlocketChunk(x, z));
+        return blocks.hasChunk(x, z);
     }
 
     /**
@@ -265,12 +273,10 @@ public class View {
      */
     public void setBlock(@NonNull BlocketPosition position, @NonNull BlockData blockData) {
         try {
-            if (hasBlock(position)) {
-                BlocketChunk chunk = position.toBlocketChunk();
-                blocks.get(chunk).put(position, blockData);
-
+            BlockData previous = blocks.replace(position, blockData);
+            if (previous != null) {
                 // Update each viewer's cache with the updated block
-                applyBlockChangeToViewers(chunk, position, blockData, "block update");
+                applyBlockChangeToViewers(position.toBlocketChunk(), position, previous, "block update");
             }
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, String.format("Error setting block at position %s in view %s", position, this.name), e);
@@ -292,11 +298,11 @@ public class View {
                     return;
                 }
                 
-                BlocketChunk chunk = position.toBlocketChunk();
-                blocks.get(chunk).put(position, newData);
-
-                // Update viewers
-                applyBlockChangeToViewers(chunk, position, newData, "block reset");
+                BlockData previous = blocks.replace(position, newData);
+                if (previous != null) {
+                    // Update viewers
+                    applyBlockChangeToViewers(position.toBlocketChunk(), position, previous, "block reset");
+                }
             }
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, String.format("Error resetting block at position %s in view %s", position, this.name), e);
@@ -319,23 +325,25 @@ public class View {
      */
     public void resetViewBlocks() {
         try {
-            blocks.forEach((chunk, chunkMap) -> {
-                chunkMap.keySet().forEach(position -> {
+            for (BlocketChunk chunk : blocks.getChunks()) {
+                for (BlocketPosition position : blocks.getPositions(chunk)) {
                     try {
                         BlockData newData = pattern.getRandomBlockData();
                         if (newData == null) {
                             LOGGER.log(Level.WARNING, String.format("Pattern returned null block data for position %s in view %s", position, this.name));
-                            return;
+                            continue;
                         }
                         
-                        chunkMap.put(position, newData);
-                        // Update viewers
-                        applyBlockChangeToViewers(chunk, position, newData, "view blocks reset");
+                        BlockData previous = blocks.replace(position, newData);
+                        if (previous != null) {
+                            // Update viewers
+                            applyBlockChangeToViewers(chunk, position, previous, "view blocks reset");
+                        }
                     } catch (Exception e) {
                         LOGGER.log(Level.WARNING, String.format("Error resetting block at position %s in view %s", position, this.name), e);
                     }
-                });
-            });
+                }
+            }
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, String.format("Error resetting all blocks in view %s", this.name), e);
         }
@@ -0,0 +1,450 @@
+package dev.twme.blocket.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.block.data.BlockData;
+
+import dev.twme.blocket.constants.ChunkConstants;
+
+/**
+ * Virtual blocks of one 16x16x16 section of a view.
+ * The section picks the most compact representation for its contents and switches as it fills:
+ *
+ * <ul>
+ *   <li>{@link Mode#SPARSE}: sorted index and value arrays, for sections with few blocks</li>
+ *   <li>{@link Mode#DENSE}: a palette and one palette index per block, for busy sections</li>
+ *   <li>{@link Mode#RUN_LENGTH}: runs of equal palette indices, for filled or layered sections</li>
+ * </ul>
+ *
+ * <p>Blocks are addressed by their local index, laid out like {@link #index(int, int, int)}.
+ * A section is not thread-safe; {@link BlockStorage} guards all access to it.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class ViewSection {
+
+    /**
+     * Storage representation of a section
+     */
+    public enum Mode {
+        SPARSE,
+        DENSE,
+        RUN_LENGTH
+    }
+
+    private static final int VOLUME = ChunkConstants.SECTION_VOLUME;
+    // Sparse sections switch to dense above this size, dense ones back to sparse below half of it
+    private static final int SPARSE_LIMIT = 256;
+    private static final int DENSE_LIMIT = SPARSE_LIMIT / 2;
+    // Dense sections are re-evaluated after this many writes, or when they become full
+    private static final int OPTIMIZE_INTERVAL = 512;
+    // A run costs 4 bytes, so up to this many runs stay well below the 8 KiB of a dense section
+    private static final int MAX_RUNS = 512;
+    private static final int INITIAL_SPARSE_CAPACITY = 8;
+
+    private Mode mode = Mode.SPARSE;
+    private int size;
+
+    // Sparse representation
+    private short[] sparseIndices = new short[INITIAL_SPARSE_CAPACITY];
+    private BlockData[] sparseValues = new BlockData[INITIAL_SPARSE_CAPACITY];
+
+    // Palette shared by the dense and run-length representations; index 0 means "no block"
+    private BlockData[] palette;
+    private Map<BlockData, Integer> paletteIds;
+    private int paletteSize;
+    private short[] dense;
+    private int writesSinceOptimize;
+
+    // Run-length representation: run i covers the indices up to and including runEnds[i]
+    private short[] runEnds;
+    private short[] runValues;
+    private int runCount;
+
+    /**
+     * Get the local index of a block inside a section
+     *
+     * @param x Local X coordinate (0-15)
+     * @param y Local Y coordinate (0-15)
+     * @param z Local Z coordinate (0-15)
+     * @return Local index (0-4095)
+     */
+    public static int index(int x, int y, int z) {
+        return y << 8 | z << 4 | x;
+    }
+
+    /**
+     * Get the block at a local index
+     *
+     * @param index Local index
+     * @return Block data, or null if the section has no block there
+     */
+    public BlockData get(int index) {
+        switch (mode) {
+            case SPARSE:
+                int slot = sparseSlot(index);
+                return slot >= 0 ? sparseValues[slot] : null;
+            case DENSE:
+                return palette[dense[index]];
+            default:
+                return palette[runValues[runOf(index)]];
+        }
+    }
+
+    /**
+     * Set the block at a local index
+     *
+     * @param index Local index
+     * @param blockData Block data, must not be null
+     * @return Previous block data, or null if there was none
+     */
+    public BlockData put(int index, BlockData blockData) {
+        if (mode == Mode.RUN_LENGTH) {
+            toDense();
+        }
+        if (mode == Mode.SPARSE) {
+            int slot = sparseSlot(index);
+            if (slot >= 0) {
+                BlockData previous = sparseValues[slot];
+                sparseValues[slot] = blockData;
+                return previous;
+            }
+            if (size < SPARSE_LIMIT) {
+                sparseInsert(-slot - 1, index, blockData);
+                return null;
+            }
+            toDense();
+        }
+
+        BlockData previous = palette[dense[index]];
+        dense[index] = (short) paletteId(blockData);
+        if (previous == null) {
+            size++;
+        }
+        afterDenseWrite(previous == null && size == VOLUME);
+        return previous;
+    }
+
+    /**
+     * Remove the block at a local index
+     *
+     * @param index Local index
+     * @return Removed block data, or null if there was none
+     */
+    public BlockData remove(int index) {
+        if (mode == Mode.RUN_LENGTH) {
+            if (get(index) == null) {
+                return null;
+            }
+            toDense();
+        }
+        if (mode == Mode.SPARSE) {
+            int slot = sparseSlot(index);
+            if (slot < 0) {
+                return null;
+            }
+            BlockData previous = sparseValues[slot];
+            System.arraycopy(sparseIndices, slot + 1, sparseIndices, slot, size - slot - 1);
+            System.arraycopy(sparseValues, slot + 1, sparseValues, slot, size - slot - 1);
+            sparseValues[--size] = null;
+            return previous;
+        }
+
+        BlockData previous = palette[dense[index]];
+        if (previous == null) {
+            return null;
+        }
+        dense[index] = 0;
+        if (--size < DENSE_LIMIT) {
+            toSparse();
+        } else {
+            afterDenseWrite(false);
+        }
+        return previous;
+    }
+
+    /**
+     * Call the consumer for every block, in local index order
+     *
+     * @param consumer Block consumer
+     */
+    public void forEach(BlockConsumer consumer) {
+        switch (mode) {
+            case SPARSE:
+                for (int i = 0; i < size; i++) {
+                    consumer.accept(sparseIndices[i], sparseValues[i]);
+                }
+                break;
+            case DENSE:
+                for (int index = 0; index < VOLUME; index++) {
+                    BlockData blockData = palette[dense[index]];
+                    if (blockData != null) {
+                        consumer.accept(index, blockData);
+                    }
+                }
+                break;
+            default:
+                int start = 0;
+                for (int run = 0; run < runCount; run++) {
+                    int end = runEnds[run];
+                    BlockData blockData = palette[runValues[run]];
+                    if (blockData != null) {
+                        for (int index = start; index <= end; index++) {
+                            consumer.accept(index, blockData);
+                        }
+                    }
+                    start = end + 1;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Copy all blocks into an array indexed by local index
+     * Positions without a block leave the target untouched, so higher layers can be copied over lower ones.
+     *
+     * @param target Array of {@link ChunkConstants#SECTION_VOLUME} entries
+     */
+    public void copyInto(BlockData[] target) {
+        switch (mode) {
+            case SPARSE:
+                for (int i = 0; i < size; i++) {
+                    target[sparseIndices[i]] = sparseValues[i];
+                }
+                break;
+            case DENSE:
+                for (int index = 0; index < VOLUME; index++) {
+                    BlockData blockData = palette[dense[index]];
+                    if (blockData != null) {
+                        target[index] = blockData;
+                    }
+                }
+                break;
+            default:
+                int start = 0;
+                for (int run = 0; run < runCount; run++) {
+                    int end = runEnds[run];
+                    BlockData blockData = palette[runValues[run]];
+                    if (blockData != null) {
+                        Arrays.fill(target, start, end + 1, blockData);
+                    }
+                    start = end + 1;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Get the number of blocks
+     *
+     * @return Number of blocks in the section
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether the section is empty
+     *
+     * @return true if the section holds no blocks
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the current representation
+     *
+     * @return Storage mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    private int sparseSlot(int index) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = sparseIndices[mid];
+            if (midIndex < index) {
+                low = mid + 1;
+            } else if (midIndex > index) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void sparseInsert(int slot, int index, BlockData blockData) {
+        if (size == sparseIndices.length) {
+            int capacity = Math.min(SPARSE_LIMIT, sparseIndices.length << 1);
+            sparseIndices = Arrays.copyOf(sparseIndices, capacity);
+            sparseValues = Arrays.copyOf(sparseValues, capacity);
+        }
+        System.arraycopy(sparseIndices, slot, sparseIndices, slot + 1, size - slot);
+        System.arraycopy(sparseValues, slot, sparseValues, slot + 1, size - slot);
+        sparseIndices[slot] = (short) index;
+        sparseValues[slot] = blockData;
+        size++;
+    }
+
+    private int runOf(int index) {
+        int low = 0;
+        int high = runCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (runEnds[mid] < index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int paletteId(BlockData blockData) {
+        Integer id = paletteIds.get(blockData);
+        if (id != null) {
+            return id;
+        }
+        if (paletteSize == palette.length) {
+            if (paletteSize > Short.MAX_VALUE) {
+                // Only unused entries can push the palette this far; dropping them always makes room
+                compactPalette();
+            } else {
+                palette = Arrays.copyOf(palette, palette.length << 1);
+            }
+        }
+        palette[paletteSize] = blockData;
+        paletteIds.put(blockData, paletteSize);
+        return paletteSize++;
+    }
+
+    private void afterDenseWrite(boolean becameFull) {
+        if (becameFull || ++writesSinceOptimize >= OPTIMIZE_INTERVAL) {
+            optimize();
+        }
+    }
+
+    /**
+     * Drop unused palette entries and switch to run-length storage if the contents are layered enough
+     */
+    private void optimize() {
+        writesSinceOptimize = 0;
+        compactPalette();
+
+        int runs = 1;
+        for (int index = 1; index < VOLUME; index++) {
+            if (dense[index] != dense[index - 1] && ++runs > MAX_RUNS) {
+                return;
+            }
+        }
+
+        runEnds = new short[runs];
+        runValues = new short[runs];
+        runCount = 0;
+        for (int index = 0; index < VOLUME; index++) {
+            if (index == VOLUME - 1 || dense[index] != dense[index + 1]) {
+                runEnds[runCount] = (short) index;
+                runValues[runCount] = dense[index];
+                runCount++;
+            }
+        }
+        dense = null;
+        mode = Mode.RUN_LENGTH;
+    }
+
+    private void compactPalette() {
+        short[] remap = new short[paletteSize];
+        boolean[] used = new boolean[paletteSize];
+        for (short id : dense) {
+            used[id] = true;
+        }
+
+        BlockData[] compacted = new BlockData[Math.max(2, Integer.highestOneBit(paletteSize) << 1)];
+        Map<BlockData, Integer> compactedIds = new HashMap<>();
+        int compactedSize = 1;
+        for (int id = 1; id < paletteSize; id++) {
+            if (used[id]) {
+                remap[id] = (short) compactedSize;
+                compacted[compactedSize] = palette[id];
+                compactedIds.put(palette[id], compactedSize);
+                compactedSize++;
+            }
+        }
+        for (int index = 0; index < VOLUME; index++) {
+            dense[index] = remap[dense[index]];
+        }
+        palette = compacted;
+        paletteIds = compactedIds;
+        paletteSize = compactedSize;
+    }
+
+    private void toDense() {
+        short[] expanded = new short[VOLUME];
+        if (mode == Mode.SPARSE) {
+            palette = new BlockData[16];
+            paletteIds = new HashMap<>();
+            paletteSize = 1;
+            for (int i = 0; i < size; i++) {
+                expanded[sparseIndices[i]] = (short) paletteId(sparseValues[i]);
+            }
+            sparseIndices = null;
+            sparseValues = null;
+        } else {
+            int start = 0;
+            for (int run = 0; run < runCount; run++) {
+                int end = runEnds[run];
+                Arrays.fill(expanded, start, end + 1, runValues[run]);
+                start = end + 1;
+            }
+            runEnds = null;
+            runValues = null;
+            runCount = 0;
+        }
+        dense = expanded;
+        writesSinceOptimize = 0;
+        mode = Mode.DENSE;
+    }
+
+    private void toSparse() {
+        int capacity = Math.max(INITIAL_SPARSE_CAPACITY, size);
+        sparseIndices = new short[capacity];
+        sparseValues = new BlockData[capacity];
+        int slot = 0;
+        for (int index = 0; index < VOLUME; index++) {
+            BlockData blockData = palette[dense[index]];
+            if (blockData != null) {
+                sparseIndices[slot] = (short) index;
+                sparseValues[slot] = blockData;
+                slot++;
+            }
+        }
+        palette = null;
+        paletteIds = null;
+        paletteSize = 0;
+        dense = null;
+        mode = Mode.SPARSE;
+    }
+
+    /**
+     * Consumer of the blocks of a section
+     */
+    @FunctionalInterface
+    public interface BlockConsumer {
+        /**
+         * Accepts a block
+         *
+         * @param index Local index of the block
+         * @param blockData Block data
+         */
+        void accept(int index, BlockData blockData);
+    }
+}
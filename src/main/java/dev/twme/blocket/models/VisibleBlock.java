@@ -0,0 +1,16 @@
+package dev.twme.blocket.models;
+
+import org.bukkit.block.data.BlockData;
+
+/**
+ * The virtual block a player sees at a position, together with the layer it comes from.
+ *
+ * @param view The view on top at the position, or null for a per-player block
+ * @param blockData The block data the player sees
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public record VisibleBlock(View view, BlockData blockData) {
+}
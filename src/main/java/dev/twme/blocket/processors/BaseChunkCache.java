@@ -0,0 +1,347 @@
+package dev.twme.blocket.processors;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import dev.twme.blocket.constants.ChunkConstants;
+
+/**
+ * World-scoped cache of extracted base chunk sections
+ * Holds the vanilla block state ids and light nibbles of each chunk section, shared by all players,
+ * so that a chunk is only extracted from a snapshot once no matter how many players view it.
+ *
+ * <p>Consistency rules:
+ * <ul>
+ *   <li>Cached arrays are never modified; callers must copy a section before writing to it</li>
+ *   <li>Block changes invalidate the state ids of their section and the light of the surrounding chunks</li>
+ *   <li>Every invalidation stamps the chunk with a new epoch; data extracted from a snapshot that was
+ *       requested before that epoch is discarded instead of being stored</li>
+ *   <li>Data older than the maximum age is dropped when it is read, so world changes that fire
+ *       no event are picked up even for chunks that stay in use</li>
+ * </ul>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class BaseChunkCache {
+
+    /**
+     * Epoch value meaning "do not store extracted data"
+     */
+    public static final long NO_EPOCH = -1L;
+
+    private static final int EPOCH_STRIPES = 4096;
+    private static final int[] EMPTY_SECTION = new int[ChunkConstants.SECTION_VOLUME];
+
+    private final Cache<ChunkKey, BaseChunkSections> chunks;
+    private final long maxAgeNanos;
+    private final AtomicLong epoch = new AtomicLong();
+    // Last invalidation epoch of each chunk, striped so that evicted chunks keep their stamp
+    private final AtomicLongArray stripeEpochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    /**
+     * Constructor
+     *
+     * @param maximumChunks Maximum number of chunks kept in the cache
+     * @param maxAgeSeconds Maximum age of extracted data before it is extracted again
+     */
+    public BaseChunkCache(long maximumChunks, long maxAgeSeconds) {
+        this.chunks = CacheBuilder.newBuilder()
+                .maximumSize(maximumChunks)
+                .expireAfterAccess(10, TimeUnit.MINUTES)
+                .build();
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+    }
+
+    /**
+     * Get the shared all-air section, used for sections the snapshot reports as empty
+     *
+     * @return Read-only array of air state ids
+     */
+    public static int[] emptySection() {
+        return EMPTY_SECTION;
+    }
+
+    /**
+     * Get the current epoch
+     * Read this before requesting the snapshot that the stored data will be extracted from.
+     *
+     * @return Current epoch
+     */
+    public long currentEpoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Get the epoch of the last invalidation that may have touched a chunk
+     * The value only grows; data derived from the chunk stays valid while it is unchanged.
+     *
+     * @param worldId World UUID
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @return Invalidation epoch of the chunk
+     */
+    public long chunkEpoch(UUID worldId, int chunkX, int chunkZ) {
+        return stripeEpochs.get(stripe(new ChunkKey(worldId, chunkX, chunkZ)));
+    }
+
+    /**
+     * Get the cached sections of a chunk
+     *
+     * @param worldId World UUID
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @return Cached sections, or null if nothing is cached for the chunk
+     */
+    public BaseChunkSections get(UUID worldId, int chunkX, int chunkZ) {
+        ChunkKey key = new ChunkKey(worldId, chunkX, chunkZ);
+        BaseChunkSections sections = chunks.getIfPresent(key);
+        if (sections != null && System.nanoTime() - sections.extractedAt > maxAgeNanos) {
+            // Too old to trust; the next build extracts the chunk from a fresh snapshot
+            chunks.asMap().remove(key, sections);
+            return null;
+        }
+        return sections;
+    }
+
+    /**
+     * Check whether a chunk can be built without taking a snapshot
+     *
+     * @param worldId World UUID
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @param ySections Number of sections required
+     * @param includeLight Whether light data is required as well
+     * @return true if every required section is cached
+     */
+    public boolean isComplete(UUID worldId, int chunkX, int chunkZ, int ySections, boolean includeLight) {
+        BaseChunkSections sections = get(worldId, chunkX, chunkZ);
+        return sections != null && sections.isComplete(ySections, includeLight);
+    }
+
+    /**
+     * Store sections extracted from a snapshot
+     * The data is discarded if the chunk was invalidated after the given epoch.
+     *
+     * @param worldId World UUID
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @param snapshotEpoch Epoch read before the snapshot was requested
+     * @param extracted Extracted sections to merge into the cache
+     */
+    public void store(UUID worldId, int chunkX, int chunkZ, long snapshotEpoch, BaseChunkSections extracted) {
+        if (snapshotEpoch == NO_EPOCH) {
+            return;
+        }
+        ChunkKey key = new ChunkKey(worldId, chunkX, chunkZ);
+        chunks.asMap().compute(key, (k, current) -> {
+            // Checked inside compute, which is atomic with respect to invalidation of the same key
+            if (stripeEpochs.get(stripe(k)) > snapshotEpoch) {
+                return current;
+            }
+            return current == null ? extracted : current.merge(extracted);
+        });
+    }
+
+    /**
+     * Invalidate the data affected by a change of a single block
+     * The section of the block loses its state ids, and the light of the 3x3 chunks around it is dropped.
+     *
+     * @param worldId World UUID
+     * @param blockX Block X coordinate
+     * @param blockY Block Y coordinate
+     * @param blockZ Block Z coordinate
+     * @param minHeight Minimum height of the world
+     */
+    public void invalidateBlock(UUID worldId, int blockX, int blockY, int blockZ, int minHeight) {
+        int chunkX = blockX >> ChunkConstants.SECTION_SHIFT;
+        int chunkZ = blockZ >> ChunkConstants.SECTION_SHIFT;
+        int section = (blockY - minHeight) >> ChunkConstants.SECTION_SHIFT;
+        long stamp = epoch.incrementAndGet();
+
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                ChunkKey key = new ChunkKey(worldId, chunkX + dx, chunkZ + dz);
+                int invalidatedSection = dx == 0 && dz == 0 ? section : -1;
+                chunks.asMap().compute(key, (k, current) -> {
+                    stripeEpochs.accumulateAndGet(stripe(k), stamp, Math::max);
+                    return current == null ? null : current.invalidate(invalidatedSection);
+                });
+            }
+        }
+    }
+
+    /**
+     * Invalidate all data of a chunk
+     *
+     * @param worldId World UUID
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     */
+    public void invalidateChunk(UUID worldId, int chunkX, int chunkZ) {
+        long stamp = epoch.incrementAndGet();
+        chunks.asMap().compute(new ChunkKey(worldId, chunkX, chunkZ), (k, current) -> {
+            stripeEpochs.accumulateAndGet(stripe(k), stamp, Math::max);
+            return null;
+        });
+    }
+
+    /**
+     * Invalidate all data of a world
+     *
+     * @param worldId World UUID
+     */
+    public void invalidateWorld(UUID worldId) {
+        chunks.asMap().keySet().removeIf(key -> key.worldId().equals(worldId));
+        // Any store still in flight for this world must be rejected
+        stampAllStripes();
+    }
+
+    /**
+     * Clear the cache
+     */
+    public void clear() {
+        stampAllStripes();
+        chunks.invalidateAll();
+    }
+
+    private void stampAllStripes() {
+        long stamp = epoch.incrementAndGet();
+        for (int i = 0; i < EPOCH_STRIPES; i++) {
+            stripeEpochs.accumulateAndGet(i, stamp, Math::max);
+        }
+    }
+
+    /**
+     * Get the number of cached chunks
+     *
+     * @return Number of cached chunks
+     */
+    public long size() {
+        return chunks.size();
+    }
+
+    private static int stripe(ChunkKey key) {
+        int h = key.worldId().hashCode();
+        h = 31 * h + key.x();
+        h = 31 * h + key.z();
+        h *= 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (EPOCH_STRIPES - 1);
+    }
+
+    /**
+     * Identifies a cached chunk
+     *
+     * @param worldId World UUID
+     * @param x Chunk X coordinate
+     * @param z Chunk Z coordinate
+     */
+    private record ChunkKey(UUID worldId, int x, int z) {
+    }
+
+    /**
+     * Immutable set of extracted sections of one chunk
+     * A null entry means the section is not cached.
+     */
+    public static final class BaseChunkSections {
+        private final int[][] stateIds;
+        private final byte[][] blockLight;
+        private final byte[][] skyLight;
+        // System#nanoTime of the oldest extraction the sections contain
+        private final long extractedAt;
+
+        /**
+         * Constructor
+         *
+         * @param stateIds Global state ids per section, null entries for missing sections
+         * @param blockLight Block light nibbles per section, or null if light was not extracted
+         * @param skyLight Sky light nibbles per section, or null if light was not extracted
+         */
+        public BaseChunkSections(int[][] stateIds, byte[][] blockLight, byte[][] skyLight) {
+            this(stateIds, blockLight, skyLight, System.nanoTime());
+        }
+
+        private BaseChunkSections(int[][] stateIds, byte[][] blockLight, byte[][] skyLight, long extractedAt) {
+            this.stateIds = stateIds;
+            this.blockLight = blockLight;
+            this.skyLight = skyLight;
+            this.extractedAt = extractedAt;
+        }
+
+        /**
+         * Get the state ids of a section
+         *
+         * @param section Section index
+         * @return Read-only state ids, or null if the section is not cached
+         */
+        public int[] getStateIds(int section) {
+            return section < stateIds.length ? stateIds[section] : null;
+        }
+
+        /**
+         * Get the block light of all sections
+         *
+         * @return Read-only block light arrays, or null if light is not cached
+         */
+        public byte[][] getBlockLight() {
+            return blockLight;
+        }
+
+        /**
+         * Get the sky light of all sections
+         *
+         * @return Read-only sky light arrays, or null if light is not cached
+         */
+        public byte[][] getSkyLight() {
+            return skyLight;
+        }
+
+        /**
+         * Check whether all required sections are present
+         *
+         * @param ySections Number of sections required
+         * @param includeLight Whether light data is required as well
+         * @return true if nothing has to be extracted
+         */
+        public boolean isComplete(int ySections, boolean includeLight) {
+            if (stateIds.length < ySections) {
+                return false;
+            }
+            for (int section = 0; section < ySections; section++) {
+                if (stateIds[section] == null) {
+                    return false;
+                }
+            }
+            return !includeLight || (blockLight != null && skyLight != null && blockLight.length >= ySections);
+        }
+
+        private BaseChunkSections merge(BaseChunkSections other) {
+            int length = Math.max(stateIds.length, other.stateIds.length);
+            int[][] merged = new int[length][];
+            for (int section = 0; section < length; section++) {
+                int[] otherStates = other.getStateIds(section);
+                merged[section] = otherStates != null ? otherStates : getStateIds(section);
+            }
+            boolean otherHasLight = other.blockLight != null && other.skyLight != null;
+            return new BaseChunkSections(merged,
+                    otherHasLight ? other.blockLight : blockLight,
+                    otherHasLight ? other.skyLight : skyLight,
+                    Math.min(extractedAt, other.extractedAt));
+        }
+
+        private BaseChunkSections invalidate(int section) {
+            int[][] remaining = stateIds;
+            if (section >= 0 && section < stateIds.length && stateIds[section] != null) {
+                remaining = stateIds.clone();
+                remaining[section] = null;
+            }
+            return new BaseChunkSections(remaining, null, null, extractedAt);
+        }
+    }
+}
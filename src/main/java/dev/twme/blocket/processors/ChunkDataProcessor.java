@@ -1,8 +1,5 @@
 package dev.twme.blocket.processors;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.bukkit.ChunkSnapshot;
 import org.bukkit.block.data.BlockData;
 
@@ -10,9 +7,9 @@ import com.github.retrooper.packetevents.protocol.world.states.WrappedBlockState
 
 import dev.twme.blocket.constants.ChunkConstants;
 import dev.twme.blocket.exceptions.ChunkProcessingException;
+import dev.twme.blocket.models.ComposedChunk;
 import dev.twme.blocket.types.BlocketChunk;
-import dev.twme.blocket.types.BlocketPosition;
-import io.github.retrooper.packetevents.util.SpigotConversionUtil;
+import dev.twme.blocket.utils.BlockStateRegistry;
 
 /**
  * Chunk data processor
@@ -20,9 +17,9 @@ import io.github.retrooper.packetevents.util.SpigotConversionUtil;
  *
  * <p>Main functions include:
  * <ul>
- *   <li>Extracting default block data from ChunkSnapshot</li>
+ *   <li>Extracting the block state ids of chunk sections from ChunkSnapshot</li>
  *   <li>Handling custom block data overrides</li>
- *   <li>Converting and caching BlockData to WrappedBlockState</li>
+ *   <li>Converting BlockData to global state ids through the shared {@link BlockStateRegistry}</li>
  *   <li>Boundary checking and error handling</li>
  * </ul>
  *
@@ -32,175 +29,168 @@ import io.github.retrooper.packetevents.util.SpigotConversionUtil;
  */
 public class ChunkDataProcessor {
     
-    // Cache BlockData to WrappedBlockState conversion to avoid repeated conversions
-    private final Map<BlockData, WrappedBlockState> blockStateCache;
-    
     /**
      * Constructor
      */
     public ChunkDataProcessor() {
-        this.blockStateCache = new HashMap<>();
     }
     
     /**
-     * Constructor, allowing specification of initial cache size
+     * Constructor, kept for compatibility
+     * State ids are interned in the global {@link BlockStateRegistry}, so the size is not used.
      *
-     * @param initialCacheSize Initial cache size
+     * @param initialCacheSize Initial cache size, ignored
      */
     public ChunkDataProcessor(int initialCacheSize) {
-        this.blockStateCache = new HashMap<>(initialCacheSize);
+        this();
     }
     
     /**
-     * Extract default block data from chunk snapshot
+     * Extract the block state ids of one chunk section from a chunk snapshot
+     * Empty sections and sections outside the world return the shared {@link BaseChunkCache#emptySection()}.
      *
      * @param chunkSnapshot Chunk snapshot
-     * @param ySections Number of chunk sections on Y-axis
+     * @param section Section index, counted from the bottom of the world
      * @param minHeight Minimum world height
      * @param maxHeight Maximum world height
-     * @return Four-dimensional array [section][x][y][z] of block data
+     * @return State ids indexed by {@link SectionPaletteBuilder#index(int, int, int)}; must not be modified
      * @throws ChunkProcessingException Thrown when an error occurs during processing
      */
-    public BlockData[][][][] extractDefaultBlockData(
-            ChunkSnapshot chunkSnapshot, 
-            int ySections, 
-            int minHeight, 
+    public int[] extractSectionStateIds(
+            ChunkSnapshot chunkSnapshot,
+            int section,
+            int minHeight,
             int maxHeight) throws ChunkProcessingException {
         
-        validateInputParameters(chunkSnapshot, ySections, minHeight, maxHeight);
-        
-        BlockData[][][][] defaultBlockData = new BlockData[ySections][ChunkConstants.CHUNK_WIDTH][ChunkConstants.CHUNK_SECTION_HEIGHT][ChunkConstants.CHUNK_DEPTH];
+        int worldSections = (maxHeight - minHeight) >> ChunkConstants.SECTION_SHIFT;
+        if (section >= worldSections || chunkSnapshot.isSectionEmpty(section)) {
+            return BaseChunkCache.emptySection();
+        }
         
+        int[] sectionStateIds = new int[ChunkConstants.SECTION_VOLUME];
         try {
-            for (int section = 0; section < ySections; section++) {
-                extractSectionBlockData(chunkSnapshot, defaultBlockData, section, minHeight, maxHeight);
-            }
+            extractSectionStateIds(chunkSnapshot, sectionStateIds, section, minHeight, maxHeight);
         } catch (Exception e) {
-            throw new ChunkProcessingException("Error occurred while extracting default block data", e);
+            throw new ChunkProcessingException("Error occurred while extracting section " + section, e);
         }
-        
-        return defaultBlockData;
+        return sectionStateIds;
     }
     
     /**
-     * Extract block data for a single chunk section
+     * Extract block state ids for a single chunk section
      */
-    private void extractSectionBlockData(
+    private void extractSectionStateIds(
             ChunkSnapshot chunkSnapshot,
-            BlockData[][][][] defaultBlockData,
+            int[] sectionStateIds,
             int section,
             int minHeight,
             int maxHeight) {
         
         int baseY = (section << ChunkConstants.SECTION_SHIFT) + minHeight;
         
-        for (int x = 0; x < ChunkConstants.CHUNK_WIDTH; x++) {
-            for (int y = 0; y < ChunkConstants.CHUNK_SECTION_HEIGHT; y++) {
-                int worldY = baseY + y;
-                if (isValidWorldY(worldY, minHeight, maxHeight)) {
-                    for (int z = 0; z < ChunkConstants.CHUNK_DEPTH; z++) {
-                        defaultBlockData[section][x][y][z] = chunkSnapshot.getBlockData(x, worldY, z);
-                    }
+        for (int y = 0; y < ChunkConstants.CHUNK_SECTION_HEIGHT; y++) {
+            int worldY = baseY + y;
+            if (!isValidWorldY(worldY, minHeight, maxHeight)) {
+                continue;
+            }
+            for (int z = 0; z < ChunkConstants.CHUNK_DEPTH; z++) {
+                for (int x = 0; x < ChunkConstants.CHUNK_WIDTH; x++) {
+                    sectionStateIds[SectionPaletteBuilder.index(x, y, z)] = getStateId(chunkSnapshot.getBlockData(x, worldY, z));
                 }
             }
         }
     }
     
     /**
-     * Get block data at the specified position
-     * Prioritize using custom block data, if not available then use default data
+     * Overwrite default state ids with custom block data
+     * The composed sections share the local index layout of the state id arrays, so each
+     * section is applied with one pass over its array. Sections outside the world height are ignored.
+     * A section is copied before its first write, so the section arrays may be shared.
      *
-     * @param position Block position
-     * @param chunk Chunk
-     * @param customBlockData Custom block data mapping
-     * @param defaultBlockData Default block data array
-     * @param section Chunk section index
+     * @param stateIds State id array [section][index]; written sections are replaced by modified copies
+     * @param chunk Chunk the state ids belong to
+     * @param customBlockData Custom block data composed for the chunk, may be null
      * @param minHeight Minimum world height
-     * @return Block data
+     * @param maxHeight Maximum world height
      */
-    public BlockData getBlockDataAtPosition(
-            BlocketPosition position,
+    public void applyCustomBlockData(
+            int[][] stateIds,
             BlocketChunk chunk,
-            Map<BlocketPosition, BlockData> customBlockData,
-            BlockData[][][][] defaultBlockData,
-            int section,
-            int minHeight) {
-        
-        // Prioritize using custom block data
-        if (customBlockData != null) {
-            BlockData customData = customBlockData.get(position);
-            if (customData != null) {
-                return customData;
-            }
-        }
-        
-        // Calculate the relative coordinates within the chunk
-        int localX = position.getX() - (chunk.x() << ChunkConstants.SECTION_SHIFT);
-        int localY = position.getY() - ((section << ChunkConstants.SECTION_SHIFT) + minHeight);
-        int localZ = position.getZ() - (chunk.z() << ChunkConstants.SECTION_SHIFT);
+            ComposedChunk customBlockData,
+            int minHeight,
+            int maxHeight) {
         
-        // Boundary check
-        if (isValidLocalCoordinate(localX, localY, localZ)) {
-            return defaultBlockData[section][localX][localY][localZ];
+        if (customBlockData == null || customBlockData.isEmpty()) {
+            return;
         }
         
-        return null;
+        customBlockData.forEachSection((sectionY, blocks) -> {
+            int worldY = sectionY << ChunkConstants.SECTION_SHIFT;
+            if (!isValidWorldY(worldY, minHeight, maxHeight)) {
+                return;
+            }
+            
+            int section = (worldY - minHeight) >> ChunkConstants.SECTION_SHIFT;
+            if (section >= stateIds.length) {
+                return;
+            }
+            
+            int[] sectionStateIds = null;
+            for (int index = 0; index < blocks.length; index++) {
+                if (blocks[index] != null) {
+                    if (sectionStateIds == null) {
+                        sectionStateIds = stateIds[section].clone();
+                    }
+                    sectionStateIds[index] = getStateId(blocks[index]);
+                }
+            }
+            if (sectionStateIds != null) {
+                stateIds[section] = sectionStateIds;
+            }
+        });
+    }
+    
+    /**
+     * Get the global state id of block data
+     *
+     * @param blockData Block data to convert
+     * @return Global block state id
+     */
+    public int getStateId(BlockData blockData) {
+        return BlockStateRegistry.getStateId(blockData);
     }
     
     /**
-     * Convert BlockData to WrappedBlockState, using cache to avoid repeated conversions
+     * Convert BlockData to WrappedBlockState
      *
      * @param blockData Block data to convert
      * @return Converted WrappedBlockState
      */
     public WrappedBlockState getWrappedBlockState(BlockData blockData) {
-        return blockStateCache.computeIfAbsent(blockData, SpigotConversionUtil::fromBukkitBlockData);
+        return BlockStateRegistry.getState(blockData);
     }
     
     /**
      * Clear cache
+     * The shared {@link BlockStateRegistry} is cleared as well.
      */
     public void clearCache() {
-        blockStateCache.clear();
+        BlockStateRegistry.clear();
     }
     
     /**
      * Get cache size
      *
-     * @return Number of items in the current cache
+     * @return Number of block data interned in the shared registry
      */
     public int getCacheSize() {
-        return blockStateCache.size();
+        return BlockStateRegistry.size();
     }
     
-    /**
-     * Validate input parameters
-     */
-    private void validateInputParameters(ChunkSnapshot chunkSnapshot, int ySections, int minHeight, int maxHeight) 
-            throws ChunkProcessingException {
-        if (chunkSnapshot == null) {
-            throw new ChunkProcessingException("Chunk snapshot cannot be null");
-        }
-        if (ySections <= 0) {
-            throw new ChunkProcessingException("Number of chunk sections on Y-axis must be greater than 0, actual value: " + ySections);
-        }
-        if (minHeight >= maxHeight) {
-            throw new ChunkProcessingException("Minimum height must be less than maximum height, minimum height: " + minHeight + ", maximum height: " + maxHeight);
-        }
-    }
     /**
      * Check if world Y coordinate is valid
      */
     private boolean isValidWorldY(int worldY, int minHeight, int maxHeight) {
         return worldY >= minHeight && worldY < maxHeight;
     }
-    
-    /**
-     * Check if local coordinates within the chunk are valid
-     */
-    private boolean isValidLocalCoordinate(int localX, int localY, int localZ) {
-        return localX >= 0 && localX < ChunkConstants.CHUNK_WIDTH &&
-               localY >= 0 && localY < ChunkConstants.CHUNK_SECTION_HEIGHT &&
-               localZ >= 0 && localZ < ChunkConstants.CHUNK_DEPTH;
-    }
 }
\ No newline at end of file
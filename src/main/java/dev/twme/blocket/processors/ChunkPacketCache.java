@@ -0,0 +1,220 @@
+package dev.twme.blocket.processors;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.bukkit.block.data.BlockData;
+
+import com.github.retrooper.packetevents.protocol.world.chunk.BaseChunk;
+import com.github.retrooper.packetevents.protocol.world.chunk.LightData;
+import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.DataPalette;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import dev.twme.blocket.models.ComposedChunk;
+import dev.twme.blocket.types.BlocketPosition;
+
+/**
+ * Cache of fully built chunk packet data
+ * Players that see the same composed overlay of a chunk receive identical chunk packets,
+ * so the Column and light data are built once and shared between them.
+ *
+ * <p>Features:
+ * <ul>
+ *   <li>Keys combine the world, chunk, client version, base chunk epoch and an overlay fingerprint</li>
+ *   <li>Memory is bounded by the estimated size of the cached sections and light data</li>
+ *   <li>Packets expire after the base chunk data's maximum age, since changes that fire no event
+ *       do not change the base chunk epoch</li>
+ *   <li>Concurrent requests for the same key share a single in-flight build</li>
+ * </ul>
+ *
+ * <p>Cached packet data is shared between threads and must not be modified after it is built.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class ChunkPacketCache {
+
+    private static final int SECTION_OVERHEAD_BYTES = 256;
+
+    private final Cache<PacketKey, ChunkPacketData> completed;
+    private final Map<PacketKey, CompletableFuture<ChunkPacketData>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param maximumBytes Maximum estimated size of all cached packet data in bytes
+     * @param maxAgeSeconds Maximum age of cached packet data
+     */
+    public ChunkPacketCache(long maximumBytes, long maxAgeSeconds) {
+        this.completed = CacheBuilder.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((PacketKey key, ChunkPacketData data) -> estimateSize(data))
+                .expireAfterWrite(maxAgeSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Get cached packet data, or build it once for all concurrent callers
+     *
+     * @param key Packet key
+     * @param builder Builds the packet data when it is neither cached nor being built
+     * @return Future completed with the shared packet data
+     */
+    public CompletableFuture<ChunkPacketData> getOrBuild(PacketKey key, Supplier<CompletableFuture<ChunkPacketData>> builder) {
+        ChunkPacketData cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<ChunkPacketData> created = new CompletableFuture<>();
+        CompletableFuture<ChunkPacketData> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        // Another build may have completed between the cache lookup and the in-flight registration
+        cached = completed.getIfPresent(key);
+        if (cached != null) {
+            inFlight.remove(key, created);
+            created.complete(cached);
+            return created;
+        }
+
+        CompletableFuture<ChunkPacketData> build;
+        try {
+            build = builder.get();
+        } catch (Exception e) {
+            build = CompletableFuture.failedFuture(e);
+        }
+        build.whenComplete((data, throwable) -> {
+            if (throwable == null && data != null && data.isValid()) {
+                completed.put(key, data);
+            }
+            inFlight.remove(key, created);
+            if (throwable != null) {
+                created.completeExceptionally(throwable);
+            } else {
+                created.complete(data);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Clear the cache
+     * Builds that are still in flight complete normally but are not shared with later requests.
+     */
+    public void clear() {
+        completed.invalidateAll();
+        inFlight.clear();
+    }
+
+    /**
+     * Get the number of cached packets
+     *
+     * @return Number of cached packets
+     */
+    public long size() {
+        return completed.size();
+    }
+
+    /**
+     * Create an order-independent fingerprint of a chunk overlay
+     *
+     * @param overlay Composed blocks of the chunk, may be null
+     * @param stateIdResolver Resolves the global state id of block data
+     * @return Fingerprint of the overlay
+     */
+    public static OverlayFingerprint fingerprint(ComposedChunk overlay, ToIntFunction<BlockData> stateIdResolver) {
+        if (overlay == null || overlay.isEmpty()) {
+            return OverlayFingerprint.EMPTY;
+        }
+
+        long[] sum = new long[1];
+        long[] xor = new long[1];
+        int[] size = new int[1];
+        overlay.forEach((x, y, z, blockData) -> {
+            long packed = BlocketPosition.pack(x, y, z);
+            long state = stateIdResolver.applyAsInt(blockData);
+            // Two independent mixes keep collisions between different overlays negligible
+            sum[0] += mix(packed * 31 + state);
+            xor[0] ^= mix(packed ^ (state << 32) ^ 0x5851F42D4C957F2DL);
+            size[0]++;
+        });
+        return new OverlayFingerprint(sum[0], xor[0], size[0]);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Estimate the memory used by packet data
+     */
+    private static int estimateSize(ChunkPacketData data) {
+        long size = 0;
+        for (BaseChunk section : data.getColumn().getChunks()) {
+            size += SECTION_OVERHEAD_BYTES;
+            if (section instanceof Chunk_v1_18 chunk) {
+                size += estimatePaletteSize(chunk.getChunkData()) + estimatePaletteSize(chunk.getBiomeData());
+            }
+        }
+        LightData lightData = data.getLightData();
+        size += estimateLightSize(lightData.getBlockLightArray()) + estimateLightSize(lightData.getSkyLightArray());
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    private static long estimatePaletteSize(DataPalette palette) {
+        return palette == null || palette.storage == null ? 0 : (long) palette.storage.getData().length * Long.BYTES;
+    }
+
+    private static long estimateLightSize(byte[][] light) {
+        long size = 0;
+        if (light != null) {
+            for (byte[] section : light) {
+                size += section == null ? 0 : section.length;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Order-independent fingerprint of the custom blocks in a chunk
+     *
+     * @param sum Sum of the mixed entries
+     * @param xor Exclusive or of the differently mixed entries
+     * @param size Number of entries
+     */
+    public record OverlayFingerprint(long sum, long xor, int size) {
+        /**
+         * Fingerprint of a chunk without custom blocks
+         */
+        public static final OverlayFingerprint EMPTY = new OverlayFingerprint(0, 0, 0);
+    }
+
+    /**
+     * Identifies a built chunk packet
+     *
+     * @param worldId World UUID
+     * @param x Chunk X coordinate
+     * @param z Chunk Z coordinate
+     * @param protocolVersion Client protocol version
+     * @param worldHeight Total world height seen by the client
+     * @param originalLighting Whether the packet carries the original light data
+     * @param baseEpoch Invalidation epoch of the base chunk
+     * @param overlay Fingerprint of the custom blocks
+     */
+    public record PacketKey(UUID worldId, int x, int z, int protocolVersion, int worldHeight,
+                            boolean originalLighting, long baseEpoch, OverlayFingerprint overlay) {
+    }
+}
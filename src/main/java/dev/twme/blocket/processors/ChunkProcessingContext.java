@@ -1,14 +1,11 @@
 package dev.twme.blocket.processors;
 
-import java.util.Map;
-
-import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
 
 import com.github.retrooper.packetevents.protocol.player.User;
 
+import dev.twme.blocket.models.ComposedChunk;
 import dev.twme.blocket.types.BlocketChunk;
-import dev.twme.blocket.types.BlocketPosition;
 
 /**
  * Chunk processing context
@@ -32,7 +29,7 @@ public class ChunkProcessingContext {
     private final Player player;
     private final BlocketChunk chunk;
     private final User packetUser;
-    private final Map<BlocketPosition, BlockData> customBlockData;
+    private final ComposedChunk customBlockData;
     private final boolean unload;
     
     /**
@@ -41,14 +38,14 @@ public class ChunkProcessingContext {
      * @param player Player
      * @param chunk Chunk
      * @param packetUser PacketEvents user object
-     * @param customBlockData Custom block data map
+     * @param customBlockData Custom block data composed for the chunk
      * @param unload Whether it is an unload operation
      */
     public ChunkProcessingContext(
             Player player,
             BlocketChunk chunk,
             User packetUser,
-            Map<BlocketPosition, BlockData> customBlockData,
+            ComposedChunk customBlockData,
             boolean unload) {
         this.player = player;
         this.chunk = chunk;
@@ -85,11 +82,11 @@ public class ChunkProcessingContext {
     }
     
     /**
-     * Get custom block data
+     * Get the custom block data composed for the chunk
      *
-     * @return Custom block data map, may be null
+     * @return Custom block data composed for the chunk, may be null
      */
-    public Map<BlocketPosition, BlockData> getCustomBlockData() {
+    public ComposedChunk getCustomBlockData() {
         return customBlockData;
     }
     
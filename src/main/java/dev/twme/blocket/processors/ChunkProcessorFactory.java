@@ -1,10 +1,11 @@
 package dev.twme.blocket.processors;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.bukkit.Chunk;
 import org.bukkit.ChunkSnapshot;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
@@ -13,13 +14,11 @@ import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.world.chunk.BaseChunk;
 import com.github.retrooper.packetevents.protocol.world.chunk.Column;
 import com.github.retrooper.packetevents.protocol.world.chunk.LightData;
-import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
-import com.github.retrooper.packetevents.protocol.world.states.WrappedBlockState;
 
 import dev.twme.blocket.constants.ChunkConstants;
 import dev.twme.blocket.exceptions.ChunkProcessingException;
+import dev.twme.blocket.models.ComposedChunk;
 import dev.twme.blocket.types.BlocketChunk;
-import dev.twme.blocket.types.BlocketPosition;
 
 /**
  * Chunk processing factory class
@@ -28,7 +27,9 @@ import dev.twme.blocket.types.BlocketPosition;
  * <p>Main functions include:
  * <ul>
  *   <li>Coordinating ChunkDataProcessor and LightDataProcessor</li>
- *   <li>Creating complete chunk Column objects</li>
+ *   <li>Creating complete chunk Column objects from palette-native sections</li>
+ *   <li>Extracting and building the sections of a column in parallel on a work-stealing pool</li>
+ *   <li>Patching server-built chunk Columns in place</li>
  *   <li>Handling biome data</li>
  *   <li>Providing advanced chunk processing interfaces</li>
  * </ul>
@@ -46,15 +47,43 @@ import dev.twme.blocket.types.BlocketPosition;
  */
 public class ChunkProcessorFactory {
     
+    // Sections per fork/join leaf task; smaller ranges are not worth the scheduling overhead
+    private static final int SECTIONS_PER_TASK = 2;
+    
     private final ChunkDataProcessor chunkDataProcessor;
     private final LightDataProcessor lightDataProcessor;
+    private final BaseChunkCache baseChunkCache;
+    private final ForkJoinPool sectionPool;
+    // Palette builders keep scratch arrays, so each thread needs its own
+    private final ThreadLocal<SectionPaletteBuilder> sectionBuilders = ThreadLocal.withInitial(SectionPaletteBuilder::new);
     
     /**
      * Constructor
      */
     public ChunkProcessorFactory() {
+        this((BaseChunkCache) null);
+    }
+    
+    /**
+     * Constructor, allows sharing extracted base sections between builds
+     *
+     * @param baseChunkCache Shared base section cache, or null to extract every chunk from its snapshot
+     */
+    public ChunkProcessorFactory(BaseChunkCache baseChunkCache) {
+        this(baseChunkCache, 1);
+    }
+    
+    /**
+     * Constructor, allows sharing extracted base sections and building sections in parallel
+     *
+     * @param baseChunkCache Shared base section cache, or null to extract every chunk from its snapshot
+     * @param sectionParallelism Number of threads building the sections of a column, 1 to build them serially
+     */
+    public ChunkProcessorFactory(BaseChunkCache baseChunkCache, int sectionParallelism) {
         this.chunkDataProcessor = new ChunkDataProcessor();
         this.lightDataProcessor = new LightDataProcessor();
+        this.baseChunkCache = baseChunkCache;
+        this.sectionPool = sectionParallelism > 1 ? createSectionPool(sectionParallelism) : null;
     }
     
     /**
@@ -65,6 +94,21 @@ public class ChunkProcessorFactory {
     public ChunkProcessorFactory(int cacheSize) {
         this.chunkDataProcessor = new ChunkDataProcessor(cacheSize);
         this.lightDataProcessor = new LightDataProcessor();
+        this.baseChunkCache = null;
+        this.sectionPool = null;
+    }
+    
+    /**
+     * Create the work-stealing pool used for section builds
+     */
+    private static ForkJoinPool createSectionPool(int parallelism) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Blocket-Section-Worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
     }
     
     /**
@@ -80,160 +124,376 @@ public class ChunkProcessorFactory {
     public Column createChunkColumn(
             Player player,
             BlocketChunk chunk,
-            Map<BlocketPosition, BlockData> customBlockData,
+            ComposedChunk customBlockData,
+            ChunkProcessingOptions options) throws ChunkProcessingException {
+        return createChunkPacketData(player, chunk, customBlockData, options).getColumn();
+    }
+    
+    /**
+     * Create the chunk Column and its light data in a single pass
+     * The chunk snapshot is taken here, so this must be called on the main thread.
+     *
+     * @param player Player
+     * @param chunk Chunk
+     * @param customBlockData Custom block data
+     * @param options Processing options
+     * @return Chunk packet data containing the Column and its light data
+     * @throws ChunkProcessingException Thrown when an error occurs during processing
+     */
+    public ChunkPacketData createChunkPacketData(
+            Player player,
+            BlocketChunk chunk,
+            ComposedChunk customBlockData,
             ChunkProcessingOptions options) throws ChunkProcessingException {
         
         validateInputs(player, chunk, options);
         
+        ChunkSnapshot chunkSnapshot;
+        long baseEpoch = baseChunkCache != null ? baseChunkCache.currentEpoch() : BaseChunkCache.NO_EPOCH;
+        try {
+            chunkSnapshot = player.getWorld().getChunkAt(chunk.x(), chunk.z()).getChunkSnapshot();
+        } catch (Exception e) {
+            throw new ChunkProcessingException("Error occurred while taking chunk snapshot", e);
+        }
+        return buildChunkPacketData(player, chunk, chunkSnapshot, baseEpoch, customBlockData, options);
+    }
+    
+    /**
+     * Create the chunk Column and its light data in a single pass
+     * Block data and light data are read from the shared base section cache, and only the
+     * sections missing from it are extracted from the snapshot.
+     * The snapshot is immutable, so this may be called from any thread.
+     *
+     * @param player Player
+     * @param chunk Chunk
+     * @param chunkSnapshot Snapshot of the chunk taken on the main thread, or null if the base sections are cached
+     * @param customBlockData Custom block data
+     * @param options Processing options; {@link ChunkProcessingOptions#baseEpoch(long)} allows storing extracted sections
+     * @return Chunk packet data containing the Column and its light data
+     * @throws ChunkProcessingException Thrown when an error occurs during processing
+     */
+    public ChunkPacketData createChunkPacketData(
+            Player player,
+            BlocketChunk chunk,
+            ChunkSnapshot chunkSnapshot,
+            ComposedChunk customBlockData,
+            ChunkProcessingOptions options) throws ChunkProcessingException {
+        
+        validateInputs(player, chunk, options);
+        return buildChunkPacketData(player, chunk, chunkSnapshot, options.getBaseEpoch(), customBlockData, options);
+    }
+    
+    /**
+     * Create the chunk Column and its light data from cached base sections only
+     * Used to skip the snapshot entirely when another build already extracted the chunk.
+     *
+     * @param player Player
+     * @param chunk Chunk
+     * @param customBlockData Custom block data
+     * @param options Processing options
+     * @return Chunk packet data, or null if the base sections of the chunk are not fully cached
+     * @throws ChunkProcessingException Thrown when an error occurs during processing
+     */
+    public ChunkPacketData createCachedChunkPacketData(
+            Player player,
+            BlocketChunk chunk,
+            ComposedChunk customBlockData,
+            ChunkProcessingOptions options) throws ChunkProcessingException {
+        
+        validateInputs(player, chunk, options);
+        if (baseChunkCache == null) {
+            return null;
+        }
+        
+        int ySections = options.getPacketUser().getTotalWorldHeight() >> ChunkConstants.SECTION_SHIFT;
+        BaseChunkCache.BaseChunkSections base = baseChunkCache.get(player.getWorld().getUID(), chunk.x(), chunk.z());
+        if (base == null || !base.isComplete(ySections, requiresLight(options))) {
+            return null;
+        }
+        return buildChunkPacketData(player, chunk, base, customBlockData, options);
+    }
+    
+    /**
+     * Create the key under which the packet data of a chunk can be shared between players
+     * The key must be created before the chunk snapshot is requested.
+     *
+     * @param player Player
+     * @param chunk Chunk
+     * @param customBlockData Custom block data the player sees in the chunk
+     * @param options Processing options
+     * @return Packet key, or null if base chunk invalidation is not tracked
+     */
+    public ChunkPacketCache.PacketKey createPacketKey(
+            Player player,
+            BlocketChunk chunk,
+            ComposedChunk customBlockData,
+            ChunkProcessingOptions options) {
+        
+        if (baseChunkCache == null) {
+            return null;
+        }
+        
+        UUID worldId = player.getWorld().getUID();
+        User packetUser = options.getPacketUser();
+        return new ChunkPacketCache.PacketKey(
+            worldId,
+            chunk.x(),
+            chunk.z(),
+            packetUser.getClientVersion().getProtocolVersion(),
+            packetUser.getTotalWorldHeight(),
+            requiresLight(options),
+            baseChunkCache.chunkEpoch(worldId, chunk.x(), chunk.z()),
+            ChunkPacketCache.fingerprint(customBlockData, chunkDataProcessor::getStateId));
+    }
+    
+    /**
+     * Resolve the base sections from the cache and the snapshot, then build the packet data
+     */
+    private ChunkPacketData buildChunkPacketData(
+            Player player,
+            BlocketChunk chunk,
+            ChunkSnapshot chunkSnapshot,
+            long baseEpoch,
+            ComposedChunk customBlockData,
+            ChunkProcessingOptions options) throws ChunkProcessingException {
+        
+        int ySections = options.getPacketUser().getTotalWorldHeight() >> ChunkConstants.SECTION_SHIFT;
+        BaseChunkCache.BaseChunkSections base = resolveBaseSections(
+            player.getWorld().getUID(), chunk, chunkSnapshot, baseEpoch, ySections,
+            player.getWorld().getMinHeight(), player.getWorld().getMaxHeight(), requiresLight(options));
+        return buildChunkPacketData(player, chunk, base, customBlockData, options);
+    }
+    
+    /**
+     * Build the Column and light data from base sections and custom block data
+     */
+    private ChunkPacketData buildChunkPacketData(
+            Player player,
+            BlocketChunk chunk,
+            BaseChunkCache.BaseChunkSections base,
+            ComposedChunk customBlockData,
+            ChunkProcessingOptions options) throws ChunkProcessingException {
+        
         try {
             // Get basic information
             User packetUser = options.getPacketUser();
             int ySections = packetUser.getTotalWorldHeight() >> ChunkConstants.SECTION_SHIFT;
-            Chunk bukkitChunk = player.getWorld().getChunkAt(chunk.x(), chunk.z());
-            ChunkSnapshot chunkSnapshot = bukkitChunk.getChunkSnapshot();
             int maxHeight = player.getWorld().getMaxHeight();
             int minHeight = player.getWorld().getMinHeight();
             
-            // Extract default block data
-            BlockData[][][][] defaultBlockData = chunkDataProcessor.extractDefaultBlockData(
-                chunkSnapshot, ySections, minHeight, maxHeight);
+            // Overlay the custom blocks on copies of the shared base sections
+            int[][] stateIds = new int[ySections][];
+            for (int section = 0; section < ySections; section++) {
+                stateIds[section] = base.getStateIds(section);
+            }
+            chunkDataProcessor.applyCustomBlockData(stateIds, chunk, customBlockData, minHeight, maxHeight);
             
-            // Create chunk section list
-            List<BaseChunk> chunks = createChunkSections(
-                defaultBlockData, customBlockData, chunk, ySections, minHeight, maxHeight, options);
+            // Create chunk sections
+            BaseChunk[] chunks = createChunkSections(stateIds, ySections, options);
             
-            // Create light data
-            LightData lightData = createLightData(chunkSnapshot, ySections, minHeight, maxHeight, options);
+            // Create light data from the same base sections
+            LightData lightData = requiresLight(options)
+                ? lightDataProcessor.createLightData(base.getBlockLight(), base.getSkyLight(), ySections)
+                : lightDataProcessor.createEmptyLightData(ySections);
             
-            // Create and return Column
-            return new Column(chunk.x(), chunk.z(), true, chunks.toArray(new BaseChunk[0]), null);
+            // Create and return the Column together with its light data
+            return new ChunkPacketData(new Column(chunk.x(), chunk.z(), true, chunks, null), lightData);
             
+        } catch (ChunkProcessingException e) {
+            throw e;
         } catch (Exception e) {
             throw new ChunkProcessingException("Error occurred while creating chunk Column", e);
         }
     }
     
     /**
-     * Create chunk section list
+     * Resolve the base sections of a chunk
+     * Cached sections are reused; missing ones are extracted from the snapshot and stored back.
      */
-    private List<BaseChunk> createChunkSections(
-            BlockData[][][][] defaultBlockData,
-            Map<BlocketPosition, BlockData> customBlockData,
+    private BaseChunkCache.BaseChunkSections resolveBaseSections(
+            UUID worldId,
             BlocketChunk chunk,
+            ChunkSnapshot chunkSnapshot,
+            long baseEpoch,
             int ySections,
             int minHeight,
             int maxHeight,
-            ChunkProcessingOptions options) throws ChunkProcessingException {
+            boolean includeLight) throws ChunkProcessingException {
+        
+        BaseChunkCache.BaseChunkSections cached = baseChunkCache != null
+            ? baseChunkCache.get(worldId, chunk.x(), chunk.z()) : null;
+        if (cached != null && cached.isComplete(ySections, includeLight)) {
+            return cached;
+        }
+        if (chunkSnapshot == null) {
+            throw new ChunkProcessingException("Chunk snapshot cannot be null when the base sections are not cached");
+        }
         
-        List<BaseChunk> chunks = new ArrayList<>(ySections);
+        int[][] stateIds = new int[ySections][];
+        forEachSection(ySections, section -> {
+            int[] cachedStates = cached != null ? cached.getStateIds(section) : null;
+            stateIds[section] = cachedStates != null
+                ? cachedStates
+                : chunkDataProcessor.extractSectionStateIds(chunkSnapshot, section, minHeight, maxHeight);
+        });
         
-        for (int section = 0; section < ySections; section++) {
-            Chunk_v1_18 baseChunk = createChunkSection(
-                defaultBlockData, customBlockData, chunk, section, minHeight, maxHeight, options);
-            chunks.add(baseChunk);
+        byte[][] blockLight = null;
+        byte[][] skyLight = null;
+        if (includeLight) {
+            if (cached != null && cached.getBlockLight() != null && cached.getSkyLight() != null
+                    && cached.getBlockLight().length >= ySections) {
+                blockLight = cached.getBlockLight();
+                skyLight = cached.getSkyLight();
+            } else {
+                blockLight = new byte[ySections][];
+                skyLight = new byte[ySections][];
+                lightDataProcessor.extractLight(chunkSnapshot, blockLight, skyLight, minHeight, maxHeight);
+            }
         }
         
-        return chunks;
+        BaseChunkCache.BaseChunkSections extracted = new BaseChunkCache.BaseChunkSections(stateIds, blockLight, skyLight);
+        if (baseChunkCache != null) {
+            baseChunkCache.store(worldId, chunk.x(), chunk.z(), baseEpoch, extracted);
+        }
+        return extracted;
     }
     
     /**
-     * Create a single chunk section
+     * Check whether the options require the original light data
      */
-    private Chunk_v1_18 createChunkSection(
-            BlockData[][][][] defaultBlockData,
-            Map<BlocketPosition, BlockData> customBlockData,
-            BlocketChunk chunk,
-            int section,
+    private boolean requiresLight(ChunkProcessingOptions options) {
+        return !options.isUseEmptyLighting() || options.isPreserveOriginalLighting();
+    }
+    
+    /**
+     * Patch an existing chunk Column in place with custom block data
+     * Only the sections that contain custom blocks are modified, every other section
+     * keeps the palette and storage that the server produced.
+     *
+     * @param column Column to patch, usually decoded from an outgoing chunk packet
+     * @param customBlockData Custom block data inside the column
+     * @param minHeight Minimum world height
+     * @param maxHeight Maximum world height
+     * @return true if at least one block was written to the column
+     */
+    public boolean patchChunkColumn(
+            Column column,
+            ComposedChunk customBlockData,
             int minHeight,
-            int maxHeight,
-            ChunkProcessingOptions options) throws ChunkProcessingException {
+            int maxHeight) {
         
-        Chunk_v1_18 baseChunk = new Chunk_v1_18();
-        long baseY = (section << ChunkConstants.SECTION_SHIFT) + minHeight;
+        if (column == null || customBlockData == null || customBlockData.isEmpty()) {
+            return false;
+        }
         
-        // Fill block data
-        for (int x = 0; x < ChunkConstants.CHUNK_WIDTH; x++) {
-            for (int y = 0; y < ChunkConstants.CHUNK_SECTION_HEIGHT; y++) {
-                long worldY = baseY + y;
-                if (isValidWorldY(worldY, minHeight, maxHeight)) {
-                    for (int z = 0; z < ChunkConstants.CHUNK_DEPTH; z++) {
-                        processBlockAtPosition(baseChunk, defaultBlockData, customBlockData, 
-                                             chunk, section, x, y, z, minHeight);
-                    }
+        BaseChunk[] sections = column.getChunks();
+        boolean patched = false;
+        
+        for (int section = 0; section < sections.length; section++) {
+            BlockData[] blocks = customBlockData.getSection((minHeight >> ChunkConstants.SECTION_SHIFT) + section);
+            if (blocks == null || sections[section] == null
+                    || minHeight + (section << ChunkConstants.SECTION_SHIFT) >= maxHeight) {
+                continue;
+            }
+            
+            for (int index = 0; index < blocks.length; index++) {
+                if (blocks[index] != null) {
+                    sections[section].set(
+                        index & ChunkConstants.LOCAL_COORDINATE_MASK,
+                        index >> 8,
+                        (index >> ChunkConstants.SECTION_SHIFT) & ChunkConstants.LOCAL_COORDINATE_MASK,
+                        chunkDataProcessor.getStateId(blocks[index]));
+                    patched = true;
                 }
             }
         }
         
-        // Set biome data
-        setBiomeData(baseChunk, options.getBiomeId());
-        
-        return baseChunk;
+        return patched;
     }
     
     /**
-     * Process block at specified position
+     * Create chunk sections from global state ids
+     * Each section is written to its own slot, so the result is in order however the sections are scheduled.
      */
-    private void processBlockAtPosition(
-            Chunk_v1_18 baseChunk,
-            BlockData[][][][] defaultBlockData,
-            Map<BlocketPosition, BlockData> customBlockData,
-            BlocketChunk chunk,
-            int section,
-            int x, int y, int z,
-            int minHeight) {
-        
-        // Calculate world coordinates
-        BlocketPosition position = new BlocketPosition(
-            x + (chunk.x() << ChunkConstants.SECTION_SHIFT),
-            (section << ChunkConstants.SECTION_SHIFT) + y + minHeight,
-            z + (chunk.z() << ChunkConstants.SECTION_SHIFT)
-        );
-        
-        // Get block data
-        BlockData blockData = chunkDataProcessor.getBlockDataAtPosition(
-            position, chunk, customBlockData, defaultBlockData, section, minHeight);
+    private BaseChunk[] createChunkSections(
+            int[][] stateIds,
+            int ySections,
+            ChunkProcessingOptions options) throws ChunkProcessingException {
         
-        if (blockData != null) {
-            // Convert to WrappedBlockState and set to chunk
-            WrappedBlockState state = chunkDataProcessor.getWrappedBlockState(blockData);
-            baseChunk.set(x, y, z, state);
-        }
+        BaseChunk[] chunks = new BaseChunk[ySections];
+        forEachSection(ySections, section -> chunks[section] = sectionBuilders.get().build(stateIds[section], options.getBiomeId()));
+        return chunks;
     }
     
     /**
-     * Set biome data
+     * Run an action for every section index, in parallel when a section pool is configured
      */
-    private void setBiomeData(Chunk_v1_18 baseChunk, int biomeId) {
-        int actualBiomeId = baseChunk.getBiomeData().palette.stateToId(biomeId);
-        int storageSize = baseChunk.getBiomeData().storage.getData().length;
+    private void forEachSection(int ySections, SectionAction action) throws ChunkProcessingException {
+        if (sectionPool == null || ySections <= SECTIONS_PER_TASK) {
+            for (int section = 0; section < ySections; section++) {
+                action.apply(section);
+            }
+            return;
+        }
         
-        for (int index = 0; index < storageSize; index++) {
-            baseChunk.getBiomeData().storage.set(index, actualBiomeId);
+        try {
+            sectionPool.invoke(new SectionRangeTask(action, 0, ySections));
+        } catch (SectionFailure e) {
+            throw e.getCause();
         }
     }
     
     /**
-     * Create light data
+     * Action applied to a single section index
      */
-    private LightData createLightData(
-            ChunkSnapshot chunkSnapshot,
-            int ySections,
-            int minHeight,
-            int maxHeight,
-            ChunkProcessingOptions options) throws ChunkProcessingException {
+    @FunctionalInterface
+    private interface SectionAction {
+        void apply(int section) throws ChunkProcessingException;
+    }
+    
+    /**
+     * Splits a range of sections until each task covers a few sections
+     */
+    private static final class SectionRangeTask extends RecursiveAction {
+        private final SectionAction action;
+        private final int from;
+        private final int to;
         
-        if (options.isUseEmptyLighting() && !options.isPreserveOriginalLighting()) {
-            return lightDataProcessor.createEmptyLightData(ySections);
-        } else {
-            return lightDataProcessor.createLightData(chunkSnapshot, ySections, minHeight, maxHeight);
+        private SectionRangeTask(SectionAction action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= SECTIONS_PER_TASK) {
+                for (int section = from; section < to; section++) {
+                    try {
+                        action.apply(section);
+                    } catch (ChunkProcessingException e) {
+                        throw new SectionFailure(e);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SectionRangeTask(action, from, middle), new SectionRangeTask(action, middle, to));
         }
     }
     
     /**
-     * Check if world Y coordinate is valid
+     * Carries a checked section failure out of the fork/join pool
      */
-    private boolean isValidWorldY(long worldY, int minHeight, int maxHeight) {
-        return worldY >= minHeight && worldY < maxHeight;
+    private static final class SectionFailure extends RuntimeException {
+        private SectionFailure(ChunkProcessingException cause) {
+            super(cause);
+        }
+        
+        @Override
+        public synchronized ChunkProcessingException getCause() {
+            return (ChunkProcessingException) super.getCause();
+        }
     }
     
     /**
@@ -260,6 +520,28 @@ public class ChunkProcessorFactory {
      */
     public void clearCaches() {
         chunkDataProcessor.clearCache();
+        if (baseChunkCache != null) {
+            baseChunkCache.clear();
+        }
+    }
+    
+    /**
+     * Stop the section pool
+     * Builds started afterwards fail, so call this only when no more chunks are processed.
+     */
+    public void shutdown() {
+        if (sectionPool != null) {
+            sectionPool.shutdown();
+        }
+    }
+    
+    /**
+     * Get the shared base section cache
+     *
+     * @return Base section cache, or null if base sections are not cached
+     */
+    public BaseChunkCache getBaseChunkCache() {
+        return baseChunkCache;
     }
     
     /**
@@ -280,6 +562,7 @@ public class ChunkProcessorFactory {
         private boolean useEmptyLighting = false;
         private boolean preserveOriginalLighting = false;
         private int biomeId = ChunkConstants.DEFAULT_BIOME_ID;
+        private long baseEpoch = BaseChunkCache.NO_EPOCH;
         
         /**
          * Constructs ChunkProcessingOptions with the specified packet user.
@@ -322,6 +605,18 @@ public class ChunkProcessorFactory {
             return this;
         }
 
+        /**
+         * Sets the base cache epoch read before the chunk snapshot was requested.
+         * Sections extracted from the snapshot are only stored in the base cache when this is set.
+         *
+         * @param baseEpoch The epoch from {@link BaseChunkCache#currentEpoch()}
+         * @return this ChunkProcessingOptions instance
+         */
+        public ChunkProcessingOptions baseEpoch(long baseEpoch) {
+            this.baseEpoch = baseEpoch;
+            return this;
+        }
+
         /**
          * Gets the packet user for chunk processing.
          * @return The packet user
@@ -354,5 +649,13 @@ public class ChunkProcessorFactory {
         public int getBiomeId() {
             return biomeId;
         }
+
+        /**
+         * Gets the base cache epoch read before the chunk snapshot was requested.
+         * @return The base epoch, or {@link BaseChunkCache#NO_EPOCH} if extracted sections must not be stored
+         */
+        public long getBaseEpoch() {
+            return baseEpoch;
+        }
     }
 }
\ No newline at end of file
@@ -49,6 +49,55 @@ public class LightDataProcessor {
         }
     }
     
+    /**
+     * Create a LightData object from already extracted light arrays
+     * The arrays are referenced, not copied, so shared cached arrays can be passed in.
+     *
+     * @param blockLightArray Block light nibbles per section
+     * @param skyLightArray Sky light nibbles per section
+     * @param ySections Number of Y-axis chunk sections
+     * @return Complete LightData object
+     * @throws ChunkProcessingException Thrown when the arrays do not cover all sections
+     */
+    public LightData createLightData(byte[][] blockLightArray, byte[][] skyLightArray, int ySections)
+            throws ChunkProcessingException {
+        if (blockLightArray == null || skyLightArray == null
+                || blockLightArray.length < ySections || skyLightArray.length < ySections) {
+            throw new ChunkProcessingException("Light arrays must cover all " + ySections + " chunk sections");
+        }
+        return buildLightData(blockLightArray, skyLightArray, ySections);
+    }
+    
+    /**
+     * Extract the light of every section from a chunk snapshot
+     *
+     * @param chunkSnapshot Chunk snapshot
+     * @param blockLightArray Array receiving one block light section per entry
+     * @param skyLightArray Array receiving one sky light section per entry
+     * @param minHeight Minimum world height
+     * @param maxHeight Maximum world height
+     * @throws ChunkProcessingException Thrown when an error occurs during processing
+     */
+    public void extractLight(
+            ChunkSnapshot chunkSnapshot,
+            byte[][] blockLightArray,
+            byte[][] skyLightArray,
+            int minHeight,
+            int maxHeight) throws ChunkProcessingException {
+        
+        validateInputParameters(chunkSnapshot, blockLightArray.length, minHeight, maxHeight);
+        
+        try {
+            for (int section = 0; section < blockLightArray.length; section++) {
+                blockLightArray[section] = new byte[ChunkConstants.LIGHT_DATA_SIZE];
+                skyLightArray[section] = new byte[ChunkConstants.LIGHT_DATA_SIZE];
+            }
+            populateLightData(chunkSnapshot, blockLightArray, skyLightArray, blockLightArray.length, minHeight, maxHeight);
+        } catch (Exception e) {
+            throw new ChunkProcessingException("Error occurred while extracting light data", e);
+        }
+    }
+    
     /**
      * Create an empty LightData object (let the client calculate lighting)
      *
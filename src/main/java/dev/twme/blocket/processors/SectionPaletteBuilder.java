@@ -0,0 +1,196 @@
+package dev.twme.blocket.processors;
+
+import java.util.Arrays;
+
+import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.DataPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.ListPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.MapPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.Palette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.PaletteType;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.SingletonPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.storage.BitStorage;
+
+import dev.twme.blocket.constants.ChunkConstants;
+
+/**
+ * Palette-native chunk section builder
+ * Builds network chunk sections directly from arrays of global block state ids
+ *
+ * <p>The builder chooses the smallest palette able to represent a section:
+ * <ul>
+ *   <li>Single-valued palette for uniform sections (no storage is sent)</li>
+ *   <li>Linear or hash-mapped indirect palette for sections with up to 256 distinct states</li>
+ *   <li>Global palette for anything larger</li>
+ * </ul>
+ *
+ * <p>Scratch buffers are reused between sections, so no objects are allocated per voxel.
+ * Instances are not thread-safe; use one builder per worker thread.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class SectionPaletteBuilder {
+
+    private static final int MAX_INDIRECT_STATES = 1 << ChunkConstants.MAX_PALETTE_BITS;
+    private static final int LOOKUP_SIZE = MAX_INDIRECT_STATES << 1;
+    private static final int LOOKUP_MASK = LOOKUP_SIZE - 1;
+
+    // Distinct states of the current section, in palette order
+    private final int[] paletteStates = new int[MAX_INDIRECT_STATES];
+    // Palette index of every voxel of the current section
+    private final short[] paletteIndices = new short[ChunkConstants.SECTION_VOLUME];
+    // Open-addressing state -> palette index lookup, invalidated per section through stamps
+    private final int[] lookupStates = new int[LOOKUP_SIZE];
+    private final short[] lookupIndices = new short[LOOKUP_SIZE];
+    private final int[] lookupStamps = new int[LOOKUP_SIZE];
+    private int stamp;
+
+    /**
+     * Calculate the index of a voxel inside a section state array
+     *
+     * @param x Local X coordinate (0-15)
+     * @param y Local Y coordinate (0-15)
+     * @param z Local Z coordinate (0-15)
+     * @return Index in YZX order, matching the network palette layout
+     */
+    public static int index(int x, int y, int z) {
+        return y << 8 | z << 4 | x;
+    }
+
+    /**
+     * Build a chunk section from global block state ids
+     *
+     * @param states Array of {@link ChunkConstants#SECTION_VOLUME} global state ids in YZX order
+     * @param biomeId Biome id applied to the whole section
+     * @return Chunk section backed by the smallest fitting palette
+     */
+    public Chunk_v1_18 build(int[] states, int biomeId) {
+        nextStamp();
+
+        int distinct = 0;
+        int blockCount = 0;
+        for (int i = 0; i < ChunkConstants.SECTION_VOLUME; i++) {
+            int state = states[i];
+            if (state != ChunkConstants.AIR_STATE_ID) {
+                blockCount++;
+            }
+
+            int paletteIndex = lookup(state);
+            if (paletteIndex < 0) {
+                if (distinct == MAX_INDIRECT_STATES) {
+                    return buildGlobal(states, biomeId);
+                }
+                paletteIndex = distinct;
+                paletteStates[distinct++] = state;
+                insert(state, paletteIndex);
+            }
+            paletteIndices[i] = (short) paletteIndex;
+        }
+
+        if (distinct == 1) {
+            return buildUniform(paletteStates[0], biomeId);
+        }
+
+        int bits = Math.max(ChunkConstants.MIN_PALETTE_BITS, 32 - Integer.numberOfLeadingZeros(distinct - 1));
+        Palette palette = bits <= ChunkConstants.MIN_PALETTE_BITS ? new ListPalette(bits) : new MapPalette(bits);
+        for (int i = 0; i < distinct; i++) {
+            palette.stateToId(paletteStates[i]);
+        }
+
+        BitStorage storage = new BitStorage(bits, ChunkConstants.SECTION_VOLUME);
+        for (int i = 0; i < ChunkConstants.SECTION_VOLUME; i++) {
+            storage.set(i, paletteIndices[i]);
+        }
+
+        return new Chunk_v1_18(blockCount, new DataPalette(palette, storage, PaletteType.CHUNK), createBiomeData(biomeId));
+    }
+
+    /**
+     * Build a chunk section in which every voxel has the same state
+     *
+     * @param state Global state id of every voxel
+     * @param biomeId Biome id applied to the whole section
+     * @return Single-valued chunk section
+     */
+    public Chunk_v1_18 buildUniform(int state, int biomeId) {
+        int blockCount = state == ChunkConstants.AIR_STATE_ID ? 0 : ChunkConstants.SECTION_VOLUME;
+        DataPalette chunkData = new DataPalette(new SingletonPalette(state), null, PaletteType.CHUNK);
+        return new Chunk_v1_18(blockCount, chunkData, createBiomeData(biomeId));
+    }
+
+    /**
+     * Build a section that exceeds the indirect palette limit
+     * The data palette resizes itself to the global palette while the states are written
+     */
+    private Chunk_v1_18 buildGlobal(int[] states, int biomeId) {
+        DataPalette chunkData = DataPalette.createForChunk();
+        int blockCount = 0;
+        for (int i = 0; i < ChunkConstants.SECTION_VOLUME; i++) {
+            int state = states[i];
+            if (state != ChunkConstants.AIR_STATE_ID) {
+                blockCount++;
+            }
+            chunkData.set(i & ChunkConstants.LOCAL_COORDINATE_MASK,
+                          i >> 8,
+                          (i >> 4) & ChunkConstants.LOCAL_COORDINATE_MASK,
+                          state);
+        }
+        return new Chunk_v1_18(blockCount, chunkData, createBiomeData(biomeId));
+    }
+
+    /**
+     * Create single-valued biome data
+     */
+    private DataPalette createBiomeData(int biomeId) {
+        return new DataPalette(new SingletonPalette(biomeId), null, PaletteType.BIOME);
+    }
+
+    /**
+     * Advance the lookup stamp, clearing the lookup table only when the stamp wraps around
+     */
+    private void nextStamp() {
+        if (++stamp == 0) {
+            Arrays.fill(lookupStamps, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Find the palette index of a state in the current section
+     *
+     * @return Palette index, or -1 if the state is not yet in the palette
+     */
+    private int lookup(int state) {
+        int slot = mix(state) & LOOKUP_MASK;
+        while (lookupStamps[slot] == stamp) {
+            if (lookupStates[slot] == state) {
+                return lookupIndices[slot];
+            }
+            slot = (slot + 1) & LOOKUP_MASK;
+        }
+        return -1;
+    }
+
+    /**
+     * Record the palette index of a state in the current section
+     */
+    private void insert(int state, int paletteIndex) {
+        int slot = mix(state) & LOOKUP_MASK;
+        while (lookupStamps[slot] == stamp) {
+            slot = (slot + 1) & LOOKUP_MASK;
+        }
+        lookupStamps[slot] = stamp;
+        lookupStates[slot] = state;
+        lookupIndices[slot] = (short) paletteIndex;
+    }
+
+    /**
+     * Spread state ids, which are mostly small and sequential, over the lookup table
+     */
+    private static int mix(int state) {
+        int h = state * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
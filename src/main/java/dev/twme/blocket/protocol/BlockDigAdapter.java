@@ -1,6 +1,5 @@
 package dev.twme.blocket.protocol;
 
-import java.util.List;
 import java.util.Objects;
 
 import org.bukkit.Bukkit;
@@ -15,13 +14,18 @@ import com.github.retrooper.packetevents.event.SimplePacketListenerAbstract;
 import com.github.retrooper.packetevents.event.simple.PacketPlayReceiveEvent;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.player.DiggingAction;
+import com.github.retrooper.packetevents.util.Vector3i;
 import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPlayerDigging;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBlockChange;
 
 import dev.twme.blocket.api.BlocketAPI;
 import dev.twme.blocket.events.BlocketBreakEvent;
 import dev.twme.blocket.events.BlocketInteractEvent;
-import dev.twme.blocket.models.Stage;
+import dev.twme.blocket.managers.PacketBatcher;
+import dev.twme.blocket.models.View;
+import dev.twme.blocket.models.VisibleBlock;
 import dev.twme.blocket.types.BlocketPosition;
+import dev.twme.blocket.utils.BlockStateRegistry;
 
 /**
  * Packet adapter that handles block digging interactions for virtual blocks.
@@ -49,8 +53,8 @@ public class BlockDigAdapter extends SimplePacketListenerAbstract {
 
     /**
      * Handles incoming player digging packets and processes them for virtual blocks.
-     * This method intercepts PLAYER_DIGGING packets and checks if the target block
-     * exists in any of the player's active stages.
+     * This method intercepts PLAYER_DIGGING packets and looks up the virtual block
+     * the player sees at the target position.
      * 
      * @param event The packet event containing player digging information
      */
@@ -64,52 +68,47 @@ public class BlockDigAdapter extends SimplePacketListenerAbstract {
             // Extract information from wrapper
             Player player = event.getPlayer();
 
-            // Get stages the player is in. If the player is not in any stages, return.
-            List<Stage> stages = BlocketAPI.getInstance().getStageManager().getStages(player);
-            if (stages == null || stages.isEmpty()) {
+            // If the player is not in any stages, return.
+            if (!BlocketAPI.getInstance().getStageManager().isInAnyStage(player)) {
                 return;
             }
 
-            BlocketPosition position = new BlocketPosition(wrapper.getBlockPosition().getX(), wrapper.getBlockPosition().getY(), wrapper.getBlockPosition().getZ());
-
-            // Find the block in any stage and view using streams
-            stages.stream()
-                    .filter(stage -> stage.getWorld() == player.getWorld())
-                    .flatMap(stage -> stage.getViews().stream())
-                    .filter(view -> view.hasBlock(position)).min((view1, view2) -> Integer.compare(view2.getZIndex(), view1.getZIndex()))
-                    .ifPresent(view -> {
-                        // Get block data from view
-                        BlockData blockData = view.getBlock(position);
-
-                        // Call BlocketInteractEvent to handle custom interaction
-                        Bukkit.getScheduler().runTaskAsynchronously(BlocketAPI.getInstance().getOwnerPlugin(), () -> new BlocketInteractEvent(player, position, blockData, view, view.getStage()).callEvent());
-
-                        // Check if block is breakable, if not, send block change packet to cancel the break
-                        if (!view.isBreakable()) {
-                            event.setCancelled(true);
-                            return;
-                        }
-
-                        // Block break functionality
-                        if (actionType == DiggingAction.FINISHED_DIGGING || canInstantBreak(player, blockData)) {
-                            BlocketBreakEvent BlocketBreakEvent = new BlocketBreakEvent(player, position, blockData, view, view.getStage());
-                            BlocketBreakEvent.callEvent();
-
-                            // Set to air
-                            view.setBlock(position, Material.AIR.createBlockData());
-                            for (Player audienceMember : view.getStage().getAudience().getOnlinePlayers()) {
-                                audienceMember.sendBlockChange(position.toLocation(player.getWorld()), Material.AIR.createBlockData());
-                            }
-
-                            // If block is not cancelled, break the block, otherwise, revert the block
-                            if (BlocketBreakEvent.isCancelled()) {
-                                for (Player audienceMember : view.getStage().getAudience().getOnlinePlayers()) {
-                                    audienceMember.sendBlockChange(position.toLocation(player.getWorld()), blockData);
-                                }
-                                view.setBlock(position, blockData);
-                            }
-                        }
-                    });
+            // Find the view on top at the position through the player's sorted layers
+            Vector3i blockPosition = wrapper.getBlockPosition();
+            VisibleBlock visibleBlock = BlocketAPI.getInstance().getBlockChangeManager()
+                    .getVisibleBlock(player, blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
+            if (visibleBlock == null || visibleBlock.view() == null) {
+                return;
+            }
+
+            View view = visibleBlock.view();
+            BlockData blockData = visibleBlock.blockData();
+            BlocketPosition position = new BlocketPosition(blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
+
+            // Call BlocketInteractEvent to handle custom interaction
+            Bukkit.getScheduler().runTaskAsynchronously(BlocketAPI.getInstance().getOwnerPlugin(), () -> new BlocketInteractEvent(player, position, blockData, view, view.getStage()).callEvent());
+
+            // Check if block is breakable, if not, send block change packet to cancel the break
+            if (!view.isBreakable()) {
+                event.setCancelled(true);
+                return;
+            }
+
+            // Block break functionality
+            if (actionType == DiggingAction.FINISHED_DIGGING || canInstantBreak(player, blockData)) {
+                BlocketBreakEvent BlocketBreakEvent = new BlocketBreakEvent(player, position, blockData, view, view.getStage());
+                BlocketBreakEvent.callEvent();
+
+                // If block is not cancelled, break the block; the send planner updates every audience member
+                if (!BlocketBreakEvent.isCancelled()) {
+                    view.setBlock(position, Material.AIR.createBlockData());
+                    return;
+                }
+
+                // Otherwise revert the block for the digging player, whose client already shows it broken
+                PacketBatcher packetBatcher = BlocketAPI.getInstance().getBlockChangeManager().getPacketBatcher();
+                packetBatcher.queue(player, new WrapperPlayServerBlockChange(blockPosition, BlockStateRegistry.getStateId(blockData)));
+            }
         }
     }
 
@@ -1,8 +1,5 @@
 package dev.twme.blocket.protocol;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
@@ -10,15 +7,18 @@ import com.github.retrooper.packetevents.event.SimplePacketListenerAbstract;
 import com.github.retrooper.packetevents.event.simple.PacketPlayReceiveEvent;
 import com.github.retrooper.packetevents.event.simple.PacketPlaySendEvent;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.util.Vector3i;
 import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPlayerBlockPlacement;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBlockChange;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerMultiBlockChange;
 
 import dev.twme.blocket.api.BlocketAPI;
 import dev.twme.blocket.events.BlocketPlaceEvent;
-import dev.twme.blocket.models.Stage;
+import dev.twme.blocket.managers.BlockChangeManager;
 import dev.twme.blocket.models.View;
+import dev.twme.blocket.models.VisibleBlock;
 import dev.twme.blocket.types.BlocketPosition;
+import dev.twme.blocket.utils.BlockStateRegistry;
 
 /**
  * Packet adapter for handling block placement interactions in Blocket.
@@ -40,122 +40,80 @@ public class BlockPlaceAdapter extends SimplePacketListenerAbstract {
             WrapperPlayClientPlayerBlockPlacement wrapper = new WrapperPlayClientPlayerBlockPlacement(event);
             Player player = event.getPlayer();
 
-            // Get the stages the player is in. If the player is not in any stages, return.
-            List<Stage> stages = BlocketAPI.getInstance().getStageManager().getStages(player);
-            if (stages == null || stages.isEmpty()) {
+            // If the player is not in any stages, return.
+            if (!BlocketAPI.getInstance().getStageManager().isInAnyStage(player)) {
                 return;
             }
 
-            BlocketPosition position = new BlocketPosition(wrapper.getBlockPosition().getX(), wrapper.getBlockPosition().getY(), wrapper.getBlockPosition().getZ());
+            // Check if the player sees a view's block at the position
+            Vector3i blockPosition = wrapper.getBlockPosition();
+            VisibleBlock visibleBlock = BlocketAPI.getInstance().getBlockChangeManager()
+                    .getVisibleBlock(player, blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
+            if (visibleBlock != null && visibleBlock.view() != null) {
+                View view = visibleBlock.view();
+                BlocketPosition position = new BlocketPosition(blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
 
-            // Check if the block is in any of the views in the stages
-            for (Stage stage : stages) {
-                if (!stage.getWorld().equals(player.getWorld())) continue;
-                for (View view : stage.getViews()) {
-                    if (view.hasBlock(position)) {
-                        // Call the event and cancel the placement
-                        Bukkit.getScheduler().runTask(BlocketAPI.getInstance().getOwnerPlugin(), () -> new BlocketPlaceEvent(player, position, view, stage).callEvent());
-                        event.setCancelled(true);
-                        return;
-                    }
-                }
+                // Call the event and cancel the placement
+                Bukkit.getScheduler().runTask(BlocketAPI.getInstance().getOwnerPlugin(), () -> new BlocketPlaceEvent(player, position, view, view.getStage()).callEvent());
+                event.setCancelled(true);
             }
         }
     }
 
     /**
      * Handles outgoing server block change packets.
-     * Prevents the server from sending block change packets that would conflict
-     * with virtual blocks, maintaining the consistency of the virtual block display.
+     * Packets are rewritten in place: positions where the player sees a virtual block get the
+     * virtual block's state id, and all other positions pass through unchanged. The player still
+     * receives a single packet, which keeps the virtual blocks consistent without extra packets.
      * 
      * @param event The packet event containing block change information
      */
     @Override
     public void onPacketPlaySend(PacketPlaySendEvent event) {
         if (event.getPacketType() == PacketType.Play.Server.BLOCK_CHANGE) {
-            WrapperPlayServerBlockChange wrapper = new WrapperPlayServerBlockChange(event);
             Player player = event.getPlayer();
 
-            // Get the stages the player is in. If the player is not in any stages, return.
-            List<Stage> stages = BlocketAPI.getInstance().getStageManager().getStages(player);
-            if (stages == null || stages.isEmpty()) {
+            // If the player is not in any stages, return.
+            if (!BlocketAPI.getInstance().getStageManager().isInAnyStage(player)) {
                 return;
             }
-            
-            BlocketPosition position = new BlocketPosition(wrapper.getBlockPosition().getX(), wrapper.getBlockPosition().getY(), wrapper.getBlockPosition().getZ());
-            for (Stage stage : stages) {
-                if (!stage.getWorld().equals(player.getWorld())) continue;
-                for (View view : stage.getViews()) {
-                    if (view.hasBlock(position)) {
-                        if (wrapper.getBlockState().getType().getName().equalsIgnoreCase(view.getBlock(position).getMaterial().name())) continue;
-                        event.setCancelled(true);
-                        return;
-                    }
+
+            // Substitute the virtual block the player sees at the position
+            WrapperPlayServerBlockChange wrapper = new WrapperPlayServerBlockChange(event);
+            Vector3i blockPosition = wrapper.getBlockPosition();
+            VisibleBlock visibleBlock = BlocketAPI.getInstance().getBlockChangeManager()
+                    .getVisibleBlock(player, blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
+            if (visibleBlock != null) {
+                int stateId = BlockStateRegistry.getStateId(visibleBlock.blockData());
+                if (stateId != wrapper.getBlockId()) {
+                    wrapper.setBlockID(stateId);
+                    event.markForReEncode(true);
                 }
             }
         } else if (event.getPacketType() == PacketType.Play.Server.MULTI_BLOCK_CHANGE) {
-            WrapperPlayServerMultiBlockChange wrapper = new WrapperPlayServerMultiBlockChange(event);
             Player player = event.getPlayer();
 
-            // Get the stages the player is in. If the player is not in any stages, return.
-            List<Stage> stages = BlocketAPI.getInstance().getStageManager().getStages(player);
-            if (stages == null || stages.isEmpty()) {
+            // If the player is not in any stages, return.
+            if (!BlocketAPI.getInstance().getStageManager().isInAnyStage(player)) {
                 return;
             }
 
-            // Check each block change in the multi block change packet and filter out virtual blocks
-            List<WrapperPlayServerMultiBlockChange.EncodedBlock> filteredBlocks = new ArrayList<>();
-            boolean hasVirtualBlocks = false;
-            
+            // Substitute the virtual blocks the player sees; the other blocks pass through
+            WrapperPlayServerMultiBlockChange wrapper = new WrapperPlayServerMultiBlockChange(event);
+            BlockChangeManager blockChangeManager = BlocketAPI.getInstance().getBlockChangeManager();
+            boolean rewritten = false;
             for (WrapperPlayServerMultiBlockChange.EncodedBlock encodedBlock : wrapper.getBlocks()) {
-                BlocketPosition position = new BlocketPosition(
-                    encodedBlock.getX(),
-                    encodedBlock.getY(), 
-                    encodedBlock.getZ()
-                );
-                
-                boolean isVirtualBlock = false;
-                for (Stage stage : stages) {
-                    if (!stage.getWorld().equals(player.getWorld())) continue;
-                    for (View view : stage.getViews()) {
-                        if (view.hasBlock(position)) {
-                            if (encodedBlock.getBlockState(event.getUser().getClientVersion()).getType().getName().equalsIgnoreCase(view.getBlock(position).getMaterial().name())) {
-                                // Block state matches the virtual block, keep it
-                                filteredBlocks.add(encodedBlock);
-                            } else {
-                                // Block state doesn't match, this is a virtual block that should be filtered out
-                                hasVirtualBlocks = true;
-                            }
-                            isVirtualBlock = true;
-                            break;
-                        }
+                VisibleBlock visibleBlock = blockChangeManager.getVisibleBlock(player, encodedBlock.getX(), encodedBlock.getY(), encodedBlock.getZ());
+                if (visibleBlock != null) {
+                    int stateId = BlockStateRegistry.getStateId(visibleBlock.blockData());
+                    if (stateId != encodedBlock.getBlockId()) {
+                        encodedBlock.setBlockId(stateId);
+                        rewritten = true;
                     }
-                    if (isVirtualBlock) break;
-                }
-                
-                // If it's not a virtual block, keep it in the filtered list
-                if (!isVirtualBlock) {
-                    filteredBlocks.add(encodedBlock);
                 }
             }
-            
-            // If we found virtual blocks, we need to modify the packet
-            if (hasVirtualBlocks) {
-                // Cancel the original packet
-                event.setCancelled(true);
-                
-                // If there are non-virtual blocks, send them in a separate packet
-                if (!filteredBlocks.isEmpty()) {
-                    // Send individual block change packets for non-virtual blocks
-                    // This is less efficient but more compatible
-                    for (WrapperPlayServerMultiBlockChange.EncodedBlock block : filteredBlocks) {
-                        WrapperPlayServerBlockChange blockChange = new WrapperPlayServerBlockChange(
-                            new com.github.retrooper.packetevents.util.Vector3i(block.getX(), block.getY(), block.getZ()),
-                            block.getBlockState(event.getUser().getClientVersion()).getGlobalId()
-                        );
-                        event.getUser().writePacket(blockChange);
-                    }
-                }
+            if (rewritten) {
+                event.markForReEncode(true);
             }
         }
     }
@@ -1,17 +1,29 @@
 package dev.twme.blocket.protocol;
 
-import java.util.List;
+import java.util.UUID;
 
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 import com.github.retrooper.packetevents.event.SimplePacketListenerAbstract;
+import com.github.retrooper.packetevents.event.UserDisconnectEvent;
 import com.github.retrooper.packetevents.event.simple.PacketPlaySendEvent;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.world.chunk.Column;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerChunkData;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerJoinGame;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerRespawn;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerUnloadChunk;
 
 import dev.twme.blocket.api.BlocketAPI;
+import dev.twme.blocket.managers.BlockChangeManager;
+import dev.twme.blocket.managers.ClientChunkTracker;
+import dev.twme.blocket.models.ComposedChunk;
 import dev.twme.blocket.models.Stage;
+import dev.twme.blocket.processors.ChunkPacketCache;
+import dev.twme.blocket.processors.ChunkPacketCache.OverlayFingerprint;
 import dev.twme.blocket.types.BlocketChunk;
+import dev.twme.blocket.utils.BlockStateRegistry;
 
 /**
  * Packet adapter that handles chunk loading for virtual blocks.
@@ -21,9 +33,10 @@ import dev.twme.blocket.types.BlocketChunk;
  * <p>The adapter handles:
  * <ul>
  *   <li>Detection of chunks that contain virtual blocks</li>
- *   <li>Cancellation of original chunk packets</li>
- *   <li>Generation of custom chunk packets with virtual block data</li>
+ *   <li>In-place patching of the sections that contain virtual blocks</li>
+ *   <li>Cancellation and regeneration of chunk packets when patching is disabled</li>
  *   <li>Asynchronous chunk processing for performance</li>
+ *   <li>Feeding the client chunk tracker with the chunks each client loads and unloads</li>
  * </ul>
  * 
  * <p>This adapter is crucial for ensuring that players see virtual blocks
@@ -38,52 +51,102 @@ public class ChunkLoadAdapter extends SimplePacketListenerAbstract {
 
     /**
      * Handles outgoing chunk data packets to replace them with virtual block data.
-     * When a chunk contains virtual blocks for the receiving player, the original
-     * chunk packet is cancelled and a custom chunk packet is sent instead.
+     * When a chunk contains virtual blocks for the receiving player, the packet is
+     * either patched in place or cancelled and rebuilt, depending on configuration.
      * 
      * <p>This method:
      * <ul>
+     *   <li>Tracks JOIN_GAME, RESPAWN and UNLOAD_CHUNK packets in the client chunk tracker</li>
      *   <li>Intercepts CHUNK_DATA packets</li>
      *   <li>Checks if the chunk contains virtual blocks for the player</li>
-     *   <li>Cancels the original packet if virtual blocks are present</li>
-     *   <li>Submits custom chunk generation to the executor service</li>
+     *   <li>Rewrites only the affected sections of the server's column when patching in place</li>
+     *   <li>Otherwise cancels the original packet and queues custom chunk generation in the chunk work queue</li>
      * </ul>
      * 
      * @param event The packet event containing chunk data information
      */
     @Override
     public void onPacketPlaySend(PacketPlaySendEvent event) {
-        if (event.getPacketType() == PacketType.Play.Server.CHUNK_DATA) {
+        UUID playerId = event.getUser().getUUID();
+        ClientChunkTracker tracker = BlocketAPI.getInstance().getBlockChangeManager().getClientChunkTracker();
+        if (event.getPacketType() == PacketType.Play.Server.JOIN_GAME) {
+            tracker.reset(playerId, new WrapperPlayServerJoinGame(event).getWorldName());
+        } else if (event.getPacketType() == PacketType.Play.Server.RESPAWN) {
+            tracker.onRespawn(playerId, new WrapperPlayServerRespawn(event).getWorldName().orElse(null));
+        } else if (event.getPacketType() == PacketType.Play.Server.UNLOAD_CHUNK) {
+            WrapperPlayServerUnloadChunk unloadChunk = new WrapperPlayServerUnloadChunk(event);
+            tracker.onChunkUnload(playerId, unloadChunk.getChunkX(), unloadChunk.getChunkZ());
+        } else if (event.getPacketType() == PacketType.Play.Server.CHUNK_DATA) {
             Player player = event.getPlayer();
 
             // Wrapper for the chunk data packet
             WrapperPlayServerChunkData chunkData = new WrapperPlayServerChunkData(event);
-            int chunkX = chunkData.getColumn().getX();
-            int chunkZ = chunkData.getColumn().getZ();
+            Column column = chunkData.getColumn();
+            BlocketChunk chunk = new BlocketChunk(column.getX(), column.getZ());
 
-            // Get the stages the player is in. If the player is not in any stages, return.
-            List<Stage> stages = BlocketAPI.getInstance().getStageManager().getStages(player);
-            if (stages == null || stages.isEmpty()) {
-                return;
-            }
-
-            // Loop through the stages and views to check if the chunk is in the view.
+            // Get the stages covering the chunk. If none of them contains the player, the chunk goes out unchanged.
+            Stage[] stages = BlocketAPI.getInstance().getStageManager().getStages(player.getWorld(), chunk.x(), chunk.z());
             for (Stage stage : stages) {
+                if (stage.getAudience().getPlayers().contains(playerId)) {
+                    if (BlocketAPI.getInstance().getConfig().isPatchChunksInPlace()) {
+                        tracker.onChunkSent(playerId, chunk.x(), chunk.z(), patchChunk(event, player, column, chunk));
+                    } else {
+                        // Recorded first, so the rebuild is never skipped as already current
+                        tracker.onChunkSent(playerId, chunk.x(), chunk.z(), null);
+                        if (BlocketAPI.getInstance().getBlockChangeManager().sendChunkPacket(player, chunk, false)) {
+                            // Cancel the packet to prevent the player from seeing the chunk before the rebuilt one
+                            event.setCancelled(true);
+                        } else {
+                            // The work queue is full; patch the server's packet instead of dropping the chunk
+                            tracker.onChunkSent(playerId, chunk.x(), chunk.z(), patchChunk(event, player, column, chunk));
+                        }
+                    }
+                    return;
+                }
+            }
+            tracker.onChunkSent(playerId, chunk.x(), chunk.z(), OverlayFingerprint.EMPTY);
+        }
+    }
 
-                // If the chunk is not in the world, return.
-                if (!stage.getWorld().equals(player.getWorld())) return;
-
-                if (stage.getChunks().contains(new BlocketChunk(chunkX, chunkZ))) {
-                    BlocketChunk BlocketChunk = new BlocketChunk(chunkX, chunkZ);
+    /**
+     * Stops tracking the chunks of a disconnected client and drops its waiting chunk builds and packets.
+     *
+     * @param event The disconnect event
+     */
+    @Override
+    public void onUserDisconnect(UserDisconnectEvent event) {
+        UUID playerId = event.getUser().getUUID();
+        if (playerId != null) {
+            BlockChangeManager blockChangeManager = BlocketAPI.getInstance().getBlockChangeManager();
+            blockChangeManager.getClientChunkTracker().removePlayer(playerId);
+            blockChangeManager.getChunkWorkQueue().cancel(playerId);
+            blockChangeManager.getPacketBatcher().removePlayer(playerId);
+        }
+    }
 
-                    // Cancel the packet to prevent the player from seeing the chunk
-                    event.setCancelled(true);
+    /**
+     * Writes the player's virtual blocks into the server's column and marks the packet
+     * for re-encoding, so the patched chunk goes out in the same send.
+     * Chunks without virtual blocks for the player are left untouched.
+     *
+     * @param event The packet event to re-encode
+     * @param player The receiving player
+     * @param column The column decoded from the packet
+     * @param chunk The chunk the column belongs to
+     * @return The overlay fingerprint of the chunk as it is sent
+     */
+    private OverlayFingerprint patchChunk(PacketPlaySendEvent event, Player player, Column column, BlocketChunk chunk) {
+        BlockChangeManager blockChangeManager = BlocketAPI.getInstance().getBlockChangeManager();
+        ComposedChunk blockChanges = blockChangeManager.getBlockChanges(player, chunk);
+        if (blockChanges == null) {
+            return OverlayFingerprint.EMPTY;
+        }
 
-                    // Send the chunk packet to the player
-                    BlocketAPI.getInstance().getBlockChangeManager().getExecutorService().submit(() -> BlocketAPI.getInstance().getBlockChangeManager().sendChunkPacket(player, BlocketChunk, false));
-                }
-            }
+        World world = player.getWorld();
+        if (blockChangeManager.getChunkProcessorFactory().patchChunkColumn(column, blockChanges, world.getMinHeight(), world.getMaxHeight())) {
+            event.markForReEncode(true);
         }
+        return ChunkPacketCache.fingerprint(blockChanges, BlockStateRegistry::getStateId);
     }
 
 }
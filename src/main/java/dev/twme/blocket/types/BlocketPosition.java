@@ -9,20 +9,30 @@ import org.bukkit.block.BlockState;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.util.Vector;
 
+import dev.twme.blocket.utils.LongObjectMap;
 import io.papermc.paper.math.BlockPosition;
 import io.papermc.paper.math.Position;
 import lombok.Getter;
-import lombok.Setter;
 
 /**
  * Represents a position in 3D space for Blocket virtual blocks.
  * This class provides utility methods for converting between different position formats
  * and working with Minecraft's coordinate system.
+ *
+ * <p>Positions are immutable values. Each position also has a packed long key, laid out like
+ * Minecraft's block position long (26 bits X, 26 bits Z, 12 bits Y), which primitive maps use
+ * instead of boxed position keys.</p>
  */
 @Getter
-@Setter
-public class BlocketPosition {
-    private int x, y, z;
+public final class BlocketPosition {
+    private static final int PACKED_XZ_BITS = 26;
+    private static final int PACKED_Y_BITS = 12;
+    private static final long PACKED_XZ_MASK = (1L << PACKED_XZ_BITS) - 1;
+    private static final long PACKED_Y_MASK = (1L << PACKED_Y_BITS) - 1;
+    private static final int PACKED_Z_SHIFT = PACKED_Y_BITS;
+    private static final int PACKED_X_SHIFT = PACKED_Y_BITS + PACKED_XZ_BITS;
+
+    private final int x, y, z;
 
     /**
      * Create a new BlocketPosition
@@ -37,6 +47,69 @@ public class BlocketPosition {
         this.z = z;
     }
 
+    /**
+     * Packs block coordinates into a single long
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate, between -2048 and 2047
+     * @param z The z coordinate
+     * @return The packed key
+     */
+    public static long pack(int x, int y, int z) {
+        return ((x & PACKED_XZ_MASK) << PACKED_X_SHIFT)
+                | ((z & PACKED_XZ_MASK) << PACKED_Z_SHIFT)
+                | (y & PACKED_Y_MASK);
+    }
+
+    /**
+     * Unpacks the x coordinate of a packed key
+     *
+     * @param packedKey The packed key
+     * @return The x coordinate
+     */
+    public static int unpackX(long packedKey) {
+        return (int) (packedKey >> PACKED_X_SHIFT);
+    }
+
+    /**
+     * Unpacks the y coordinate of a packed key
+     *
+     * @param packedKey The packed key
+     * @return The y coordinate
+     */
+    public static int unpackY(long packedKey) {
+        return (int) (packedKey << (Long.SIZE - PACKED_Y_BITS) >> (Long.SIZE - PACKED_Y_BITS));
+    }
+
+    /**
+     * Unpacks the z coordinate of a packed key
+     *
+     * @param packedKey The packed key
+     * @return The z coordinate
+     */
+    public static int unpackZ(long packedKey) {
+        return (int) (packedKey << (Long.SIZE - PACKED_X_SHIFT) >> (Long.SIZE - PACKED_XZ_BITS));
+    }
+
+    /**
+     * Create a new BlocketPosition from a packed key
+     *
+     * @param packedKey The packed key
+     * @return A new BlocketPosition with the unpacked coordinates
+     */
+    public static BlocketPosition fromPackedKey(long packedKey) {
+        return new BlocketPosition(unpackX(packedKey), unpackY(packedKey), unpackZ(packedKey));
+    }
+
+    /**
+     * Get the packed key of the BlocketPosition
+     *
+     * @return The packed key
+     */
+    public long getPackedKey() {
+        return pack(x, y, z);
+    }
+
     /**
      * Create a new BlocketPosition
      *
@@ -201,7 +274,6 @@ public class BlocketPosition {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
         if (!(o instanceof BlocketPosition other)) return false;
         return x == other.x && y == other.y && z == other.z;
     }
@@ -213,6 +285,6 @@ public class BlocketPosition {
      */
     @Override
     public int hashCode() {
-        return (x * 31 + y) * 31 + z;
+        return LongObjectMap.hash(getPackedKey());
     }
 }
@@ -0,0 +1,101 @@
+package dev.twme.blocket.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.plugin.Plugin;
+
+import com.github.retrooper.packetevents.protocol.world.states.WrappedBlockState;
+
+import io.github.retrooper.packetevents.util.SpigotConversionUtil;
+
+/**
+ * Global registry that interns BlockData to global block state ids.
+ * Every part of Blocket that needs a state id goes through this registry, so each distinct
+ * BlockData is converted once per server instead of once per processor or packet.
+ *
+ * <p>Lookups never block: known BlockData is answered from a concurrent map, and unknown
+ * BlockData is converted by the calling thread and published with a single putIfAbsent.
+ * State ids use the server's protocol version, the same ids the server writes into its packets.</p>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public final class BlockStateRegistry {
+    private static final Map<BlockData, Integer> STATE_IDS = new ConcurrentHashMap<>(4096);
+
+    private BlockStateRegistry() {
+    }
+
+    /**
+     * Get the global state id of block data
+     *
+     * @param blockData Block data to look up
+     * @return Global block state id
+     */
+    public static int getStateId(BlockData blockData) {
+        Integer stateId = STATE_IDS.get(blockData);
+        if (stateId != null) {
+            return stateId;
+        }
+        // Converted outside any lock; racing threads compute the same value
+        int converted = SpigotConversionUtil.fromBukkitBlockData(blockData).getGlobalId();
+        STATE_IDS.putIfAbsent(blockData, converted);
+        return converted;
+    }
+
+    /**
+     * Get the wrapped block state of block data
+     *
+     * @param blockData Block data to look up
+     * @return A new WrappedBlockState for the global state id
+     */
+    public static WrappedBlockState getState(BlockData blockData) {
+        return WrappedBlockState.getByGlobalId(getStateId(blockData));
+    }
+
+    /**
+     * Intern the default state of every block material in the background
+     * Called once at startup, so the first chunk builds do not pay for the conversions.
+     *
+     * @param plugin Plugin used to schedule the task and to log failures
+     */
+    public static void warmUp(Plugin plugin) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            int warmed = 0;
+            for (Material material : Material.values()) {
+                if (!material.isBlock() || material.isLegacy()) {
+                    continue;
+                }
+                try {
+                    getStateId(material.createBlockData());
+                    warmed++;
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.FINE, "Could not register block state of " + material, e);
+                }
+            }
+            plugin.getLogger().fine("Registered " + warmed + " block states");
+        });
+    }
+
+    /**
+     * Get the number of interned block data
+     *
+     * @return Registry size
+     */
+    public static int size() {
+        return STATE_IDS.size();
+    }
+
+    /**
+     * Clear the registry
+     */
+    public static void clear() {
+        STATE_IDS.clear();
+    }
+}
@@ -0,0 +1,287 @@
+package dev.twme.blocket.utils;
+
+/**
+ * Open-addressing hash map with primitive long keys.
+ * Keys are stored in a flat long array and probed linearly, so entries carry no boxed key,
+ * no node object and no per-entry header beyond the value itself.
+ *
+ * <p>Null values are not supported; a null value marks an empty slot.
+ * The map is not thread-safe; callers must guard concurrent access themselves.</p>
+ *
+ * @param <V> Value type
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private V[] values;
+    private int size;
+    private int resizeThreshold;
+
+    /**
+     * Creates an empty map
+     */
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map sized for the expected number of entries
+     *
+     * @param expectedSize Number of entries the map should hold without resizing
+     */
+    public LongObjectMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Mixes a key into a well-distributed hash
+     * Packed coordinates differ mostly in a few bit ranges, so they must be spread before masking.
+     *
+     * @param key The key to hash
+     * @return The mixed hash
+     */
+    public static int hash(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (key ^ (key >>> 33));
+    }
+
+    /**
+     * Gets the value mapped to a key
+     *
+     * @param key The key
+     * @return The value, or null if the key is not present
+     */
+    public V get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a key is present
+     *
+     * @param key The key
+     * @return true if the key is mapped to a value
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps a key to a value
+     *
+     * @param key The key
+     * @param value The value, must not be null
+     * @return The previous value, or null if the key was not present
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("LongObjectMap does not support null values");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes a key
+     *
+     * @param key The key
+     * @return The removed value, or null if the key was not present
+     */
+    public V remove(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = values[slot];
+                shiftBack(slot, mask);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of entries
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map is empty
+     *
+     * @return true if the map holds no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all entries and shrinks the backing arrays
+     */
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Calls the consumer for every entry
+     * The map must not be modified by the consumer, except through {@link #replaceAll}.
+     *
+     * @param consumer The entry consumer
+     */
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            V value = values[slot];
+            if (value != null) {
+                consumer.accept(keys[slot], value);
+            }
+        }
+    }
+
+    /**
+     * Replaces every value with the result of the function
+     *
+     * @param function Computes the new value from the key and the current value, must not return null
+     */
+    public void replaceAll(EntryFunction<V> function) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            V value = values[slot];
+            if (value != null) {
+                V replaced = function.apply(keys[slot], value);
+                if (replaced == null) {
+                    throw new IllegalArgumentException("LongObjectMap does not support null values");
+                }
+                values[slot] = replaced;
+            }
+        }
+    }
+
+    /**
+     * Copies all keys into a new array
+     *
+     * @return The keys, in no particular order
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int index = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != null) {
+                result[index++] = keys[slot];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Moves the entries following a removed slot back, so that no probe chain is broken
+     * This keeps lookups free of tombstones.
+     */
+    private void shiftBack(int slot, int mask) {
+        int free = slot;
+        for (int next = (free + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry if its home slot is not cyclically within (free, next]
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        values[free] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = (V[]) new Object[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int required = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR);
+        int capacity = Integer.highestOneBit(Math.max(required, MIN_CAPACITY) - 1) << 1;
+        return Math.max(capacity, MIN_CAPACITY);
+    }
+
+    @Override
+    public String toString() {
+        return "LongObjectMap{size=" + size + ", capacity=" + keys.length + "}";
+    }
+
+    /**
+     * Consumer of map entries
+     *
+     * @param <V> Value type
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        /**
+         * Accepts an entry
+         *
+         * @param key The key
+         * @param value The value
+         */
+        void accept(long key, V value);
+    }
+
+    /**
+     * Function computing a replacement value for an entry
+     *
+     * @param <V> Value type
+     */
+    @FunctionalInterface
+    public interface EntryFunction<V> {
+        /**
+         * Computes the replacement value
+         *
+         * @param key The key
+         * @param value The current value
+         * @return The new value
+         */
+        V apply(long key, V value);
+    }
+}
@@ -0,0 +1,170 @@
+package dev.twme.blocket.utils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor service that records queue metrics for any underlying executor
+ * The same metrics are available for platform pools, virtual threads and injected executors,
+ * since they are counted around each task rather than read from the executor.
+ *
+ * <p>Features:
+ * <ul>
+ *   <li>Queued, running, completed and rejected task counts</li>
+ *   <li>Optional ownership of the delegate; executors that are not owned are never shut down</li>
+ * </ul>
+ *
+ * @author TWME-TW
+ * @version 1.0.0
+ * @since 1.1.0
+ */
+public class MeteredExecutorService extends AbstractExecutorService {
+    private final String name;
+    private final ExecutorService delegate;
+    private final boolean ownsDelegate;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile boolean shutdown;
+
+    /**
+     * Constructor
+     *
+     * @param name Name used in reports
+     * @param delegate Executor that runs the tasks
+     * @param ownsDelegate Whether shutting down this executor also shuts down the delegate
+     */
+    public MeteredExecutorService(String name, ExecutorService delegate, boolean ownsDelegate) {
+        this.name = name;
+        this.delegate = delegate;
+        this.ownsDelegate = ownsDelegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException(name + " executor is shut down");
+        }
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                running.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    running.decrementAndGet();
+                    completed.incrementAndGet();
+                    if (shutdown && !ownsDelegate) {
+                        synchronized (this) {
+                            notifyAll();
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        if (ownsDelegate) {
+            delegate.shutdown();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        return ownsDelegate ? delegate.shutdownNow() : Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        if (ownsDelegate) {
+            return delegate.isTerminated();
+        }
+        return shutdown && queued.get() == 0 && running.get() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        if (ownsDelegate) {
+            return delegate.awaitTermination(timeout, unit);
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this) {
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of tasks waiting to start
+     *
+     * @return Queued task count
+     */
+    public int getQueuedTasks() {
+        return queued.get();
+    }
+
+    /**
+     * Get the number of tasks currently running
+     *
+     * @return Running task count
+     */
+    public int getRunningTasks() {
+        return running.get();
+    }
+
+    /**
+     * Get the number of tasks that have finished
+     *
+     * @return Completed task count
+     */
+    public long getCompletedTasks() {
+        return completed.get();
+    }
+
+    /**
+     * Get the number of tasks the executor refused
+     *
+     * @return Rejected task count
+     */
+    public long getRejectedTasks() {
+        return rejected.get();
+    }
+
+    /**
+     * Generate a one-line report of the queue metrics
+     *
+     * @return Metrics report
+     */
+    public String generateReport() {
+        return String.format("%s executor: queued=%d, running=%d, completed=%d, rejected=%d",
+                name, getQueuedTasks(), getRunningTasks(), getCompletedTasks(), getRejectedTasks());
+    }
+}